@@ -0,0 +1,64 @@
+package model;
+
+import model.patches.Fabric;
+import model.patches.PatchType;
+
+/*
+Represents everything needed to make a quilt: the fabric needed of each fabric type, the number of patches of each
+patch type, and the backing and binding; amounts are rounded up the same way as the quilt's own calculations
+A bill of materials is a snapshot and does not change when the quilt does
+ */
+
+public final class BillOfMaterials {
+
+    private final double blockSize;
+    private final double[] fabricAmounts;
+    private final int[] patchCounts;
+    private final double backing;
+    private final double bindingLength;
+    private final double binding;
+
+    // REQUIRES: fabricAmounts is indexed by Fabric.ordinal() and patchCounts by PatchType.ordinal(); neither array
+    //           is used by anyone else afterwards
+    // EFFECTS: creates a bill of materials with given amounts for a quilt with blocks of given size
+    BillOfMaterials(double blockSize, double[] fabricAmounts, int[] patchCounts, double backing, double bindingLength,
+                    double binding) {
+        this.blockSize = blockSize;
+        this.fabricAmounts = fabricAmounts;
+        this.patchCounts = patchCounts;
+        this.backing = backing;
+        this.bindingLength = bindingLength;
+        this.binding = binding;
+    }
+
+    // EFFECTS: returns the block size (in inches) the amounts were calculated for
+    public double getBlockSize() {
+        return blockSize;
+    }
+
+    // EFFECTS: returns the fabric needed (in square inches) of given fabric
+    public double getFabric(Fabric fabric) {
+        return fabricAmounts[fabric.ordinal()];
+    }
+
+    // EFFECTS: returns the number of patches needed of given type
+    public int getPatchCount(PatchType patchType) {
+        return patchCounts[patchType.ordinal()];
+    }
+
+    // EFFECTS: returns the total backing needed (in square inches)
+    public double getBacking() {
+        return backing;
+    }
+
+    // EFFECTS: returns the length of binding needed (in inches)
+    public double getBindingLength() {
+        return bindingLength;
+    }
+
+    // EFFECTS: returns the total fabric needed for binding (in square inches)
+    public double getBinding() {
+        return binding;
+    }
+
+}
@@ -0,0 +1,87 @@
+package model;
+
+import exceptions.BlockUnavailableException;
+import model.blocks.Block;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents the table of block types used in a quilt
+Each block type is given a small id the first time it is used, and one Block per type is shared by every slot of
+that type, so the quilt itself only needs to remember a block id per slot
+ */
+
+class BlockPalette {
+
+    static final short EMPTY = 0;
+
+    private final List<Block> blocks;
+    private final Map<String, Short> blockIds;
+
+    // EFFECTS: creates an empty palette
+    BlockPalette() {
+        blocks = new ArrayList<>();
+        blockIds = new HashMap<>();
+    }
+
+    // EFFECTS: creates a palette with the same ids for the same block types as given palette
+    BlockPalette(BlockPalette palette) {
+        blocks = new ArrayList<>(palette.blocks);
+        blockIds = new HashMap<>(palette.blockIds);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the id for given block type, creating a block of that type the first time it is used
+    //          throws BlockUnavailableException if blockType is not a known type
+    short idOf(String blockType) throws BlockUnavailableException {
+        Short id = blockIds.get(blockType);
+        if (id == null) {
+            return add(new Block(blockType));
+        }
+        return id;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the id for the type of given block; if the type is not yet in the palette, given block is
+    //          used as the shared block for its type
+    short idOf(Block block) {
+        Short id = blockIds.get(block.getBlockType());
+        if (id == null) {
+            return add(block);
+        }
+        return id;
+    }
+
+    // EFFECTS: returns the id for given block type, or EMPTY if the block type is not in the palette
+    short find(String blockType) {
+        Short id = blockIds.get(blockType);
+        return id == null ? EMPTY : id;
+    }
+
+    // EFFECTS: returns the number of block types in the palette; ids run from 1 to size()
+    int size() {
+        return blocks.size();
+    }
+
+    // REQUIRES: blockId is EMPTY or an id returned by this palette
+    // EFFECTS: returns the shared block with given id, or null if blockId is EMPTY
+    Block get(short blockId) {
+        return blockId == EMPTY ? null : blocks.get(blockId - 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds given block to the palette and returns its new id
+    private short add(Block block) {
+        if (blocks.size() >= Short.MAX_VALUE) {
+            throw new IllegalStateException("too many block types in one quilt");
+        }
+        blocks.add(block);
+        short id = (short) blocks.size();
+        blockIds.put(block.getBlockType(), id);
+        return id;
+    }
+
+}
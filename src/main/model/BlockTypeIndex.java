@@ -0,0 +1,71 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/*
+Represents an index from each block id in a quilt's palette to the slots holding a block with that id
+The index is updated whenever a slot changes, so questions like "where are all the shoo fly blocks" or "how many
+basket blocks are there" never need to look through the quilt's slots
+ */
+
+class BlockTypeIndex {
+
+    private final List<BitSet> slotsByBlockId;
+    private final List<Integer> countsByBlockId;
+
+    // EFFECTS: creates an empty index
+    BlockTypeIndex() {
+        slotsByBlockId = new ArrayList<>();
+        countsByBlockId = new ArrayList<>();
+    }
+
+    // EFFECTS: creates an index of the same slots as given index
+    BlockTypeIndex(BlockTypeIndex index) {
+        slotsByBlockId = new ArrayList<>(index.slotsByBlockId.size());
+        for (BitSet slots : index.slotsByBlockId) {
+            slotsByBlockId.add((BitSet) slots.clone());
+        }
+        countsByBlockId = new ArrayList<>(index.countsByBlockId);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: records that given slot changed from holding block replacedId to holding block blockId
+    void update(int slot, short replacedId, short blockId) {
+        if (replacedId != BlockPalette.EMPTY) {
+            slotsOf(replacedId).clear(slot);
+            countsByBlockId.set(replacedId, countsByBlockId.get(replacedId) - 1);
+        }
+        if (blockId != BlockPalette.EMPTY) {
+            slotsOf(blockId).set(slot);
+            countsByBlockId.set(blockId, countsByBlockId.get(blockId) + 1);
+        }
+    }
+
+    // EFFECTS: returns the number of slots holding block blockId
+    int count(short blockId) {
+        return blockId < countsByBlockId.size() ? countsByBlockId.get(blockId) : 0;
+    }
+
+    // EFFECTS: returns the slots holding block blockId, in increasing order
+    int[] positionsOf(short blockId) {
+        return blockId < slotsByBlockId.size() ? slotsByBlockId.get(blockId).stream().toArray() : new int[0];
+    }
+
+    // EFFECTS: returns a copy of the set of slots holding block blockId
+    BitSet copyOf(short blockId) {
+        return blockId < slotsByBlockId.size() ? (BitSet) slotsByBlockId.get(blockId).clone() : new BitSet();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the set of slots holding block blockId, making room for the block id if it is new
+    private BitSet slotsOf(short blockId) {
+        while (slotsByBlockId.size() <= blockId) {
+            slotsByBlockId.add(new BitSet());
+            countsByBlockId.add(0);
+        }
+        return slotsByBlockId.get(blockId);
+    }
+
+}
@@ -0,0 +1,70 @@
+package model;
+
+/*
+Stores the block id of every slot in a single array, using two bytes per slot
+ */
+
+class DenseSlotStorage implements SlotStorage {
+
+    private final short[] slots;
+    private int occupied;
+
+    // REQUIRES: size >= 0
+    // EFFECTS: creates storage for given number of slots, all empty
+    DenseSlotStorage(int size) {
+        slots = new short[size];
+        occupied = 0;
+    }
+
+    // EFFECTS: creates storage holding the same blocks as given storage
+    DenseSlotStorage(SlotStorage storage) {
+        this(storage.size());
+        for (int slot = storage.nextOccupied(0); slot >= 0; slot = storage.nextOccupied(slot + 1)) {
+            set(slot, storage.get(slot));
+        }
+    }
+
+    // EFFECTS: creates storage holding the same blocks as given dense storage, copying its array in one go
+    DenseSlotStorage(DenseSlotStorage storage) {
+        slots = storage.slots.clone();
+        occupied = storage.occupied;
+    }
+
+    @Override
+    public int size() {
+        return slots.length;
+    }
+
+    @Override
+    public short get(int slot) {
+        return slots[slot];
+    }
+
+    @Override
+    public short set(int slot, short blockId) {
+        short previous = slots[slot];
+        slots[slot] = blockId;
+        if (previous == BlockPalette.EMPTY && blockId != BlockPalette.EMPTY) {
+            occupied++;
+        } else if (previous != BlockPalette.EMPTY && blockId == BlockPalette.EMPTY) {
+            occupied--;
+        }
+        return previous;
+    }
+
+    @Override
+    public int nextOccupied(int fromSlot) {
+        for (int slot = Math.max(fromSlot, 0); slot < slots.length; slot++) {
+            if (slots[slot] != BlockPalette.EMPTY) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int countOccupied() {
+        return occupied;
+    }
+
+}
@@ -0,0 +1,60 @@
+package model;
+
+/*
+Represents a conflict found while merging two versions of a quilt: something both versions changed from their common
+base, in different ways
+The subject says what conflicted: a slot (at the given row and column), the size, the block size or a fabric colour;
+values are given as text, with null for an empty slot or a colour that is not set
+ */
+
+public final class MergeConflict {
+
+    public static final String SLOT = "slot";
+    public static final String SIZE = "size";
+    public static final String BLOCK_SIZE = "blockSize";
+    public static final String FABRIC_COLOUR = "fabricColour";
+
+    private final String subject;
+    private final int row;
+    private final int col;
+    private final String baseValue;
+    private final String ourValue;
+    private final String theirValue;
+
+    // EFFECTS: creates a conflict over given subject, at given row and column for slots (index of the colour for
+    //          fabric colours, 0 otherwise), between our value and their value, which both changed from the base value
+    MergeConflict(String subject, int row, int col, String baseValue, String ourValue, String theirValue) {
+        this.subject = subject;
+        this.row = row;
+        this.col = col;
+        this.baseValue = baseValue;
+        this.ourValue = ourValue;
+        this.theirValue = theirValue;
+    }
+
+    // getters
+    public String getSubject() {
+        return subject;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public String getBaseValue() {
+        return baseValue;
+    }
+
+    public String getOurValue() {
+        return ourValue;
+    }
+
+    public String getTheirValue() {
+        return theirValue;
+    }
+
+}
@@ -0,0 +1,109 @@
+package model;
+
+import model.blocks.Block;
+import model.blocks.PackedBlock;
+import model.patches.Fabric;
+import model.patches.PatchType;
+
+import java.util.Arrays;
+
+/*
+Represents running counts of the patches in a quilt, by patch type and by fabric
+Counts are whole numbers, so they can be updated by adding and removing blocks without any rounding drift; fabric
+totals are worked out from the counts on demand (as coefficients of a quadratic in the patch size), which takes the
+same time no matter how big the quilt is
+ */
+
+class PatchTally {
+
+    private final int[] patchCounts;
+    private final int[][] fabricPatchCounts;
+
+    // EFFECTS: creates an empty tally
+    PatchTally() {
+        patchCounts = new int[PatchType.values().length];
+        fabricPatchCounts = new int[Fabric.values().length][PatchType.values().length];
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds the patches of given block to the tally; does nothing if block is null
+    void add(Block block) {
+        update(block, 1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes the patches of given block from the tally; does nothing if block is null
+    void remove(Block block) {
+        update(block, -1);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: changes the count of each patch in given block (and of each fabric it contains) by delta
+    private void update(Block block, int delta) {
+        if (block != null) {
+            long packed = block.getPackedPatches();
+            for (PatchType type : PatchType.values()) {
+                patchCounts[type.ordinal()] += delta * PackedBlock.countPatches(packed, type);
+                for (Fabric fabric : Fabric.values()) {
+                    fabricPatchCounts[fabric.ordinal()][type.ordinal()] += delta
+                            * PackedBlock.countPatches(packed, fabric, type);
+                }
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds every count in given tally to this tally
+    void addAll(PatchTally other) {
+        for (int type = 0; type < patchCounts.length; type++) {
+            patchCounts[type] += other.patchCounts[type];
+            for (int fabric = 0; fabric < fabricPatchCounts.length; fabric++) {
+                fabricPatchCounts[fabric][type] += other.fabricPatchCounts[fabric][type];
+            }
+        }
+    }
+
+    // EFFECTS: returns the number of patches of given type in the tally
+    int countPatches(PatchType patchType) {
+        return patchCounts[patchType.ordinal()];
+    }
+
+    // EFFECTS: returns the number of patches of each type in the tally, indexed by PatchType.ordinal()
+    int[] countPatches() {
+        return patchCounts.clone();
+    }
+
+    // EFFECTS: returns the fabric coefficients {a, b, c} of every fabric, indexed by Fabric.ordinal(), such that the
+    //          fabric (in square inches) needed for every patch in the tally is a * patchSize^2 + b * patchSize + c
+    double[][] getFabricCoefficients() {
+        double[][] coefficients = new double[fabricPatchCounts.length][3];
+        for (PatchType type : PatchType.values()) {
+            double[] pieceCoefficients = type.getFabricCoefficients();
+            for (int fabric = 0; fabric < coefficients.length; fabric++) {
+                for (int i = 0; i < pieceCoefficients.length; i++) {
+                    coefficients[fabric][i] += fabricPatchCounts[fabric][type.ordinal()] * pieceCoefficients[i];
+                }
+            }
+        }
+        return coefficients;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PatchTally tally = (PatchTally) o;
+        return Arrays.equals(patchCounts, tally.patchCounts)
+                && Arrays.deepEquals(fabricPatchCounts, tally.fabricPatchCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(patchCounts) + Arrays.deepHashCode(fabricPatchCounts);
+    }
+
+}
@@ -3,14 +3,24 @@ package model;
 import exceptions.IllegalQuiltSizeException;
 import exceptions.SlotOutOfBoundsException;
 import model.blocks.Block;
+import model.patches.Fabric;
+import model.patches.PatchType;
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
 import persistence.GsonConfigured;
 import persistence.Saveable;
 import exceptions.BlockUnavailableException;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 
 /*
 Represents a quilt of a specific number of blocks across and down, and the blocks it contains
@@ -25,6 +35,9 @@ The list of blocks can be understood as mapping to a spot on the quilt grid as f
 |    |    |    |
 |  6 | 7  | 8  |
  ---- ---- ----
+Each slot only stores a small block id; one Block per block type is shared by all the slots of that type
+Large quilts start out storing only their occupied slots, and switch to storing every slot once enough of them are
+filled (and back again if they are mostly emptied out)
  */
 
 public class Quilt implements Saveable {
@@ -32,11 +45,26 @@ public class Quilt implements Saveable {
     public static final double SEAM_ALLOWANCE = 0.25;
     public static final double BINDING_WIDTH = 2.5;
 
+    // quilts with fewer slots than this always store every slot
+    static final int SPARSE_MIN_SLOTS = 4096;
+    // sparse storage switches to dense once more than 1 in DENSE_OCCUPANCY slots are filled, and dense storage
+    // switches back to sparse once fewer than 1 in SPARSE_OCCUPANCY slots are filled
+    static final int DENSE_OCCUPANCY = 32;
+    static final int SPARSE_OCCUPANCY = 128;
+
+    // by default, quilts with at least this many blocks in them are recounted in parallel
+    static final int DEFAULT_PARALLEL_THRESHOLD = 100000;
+
     private int numBlocksAcross;
     private int numBlocksDown;
     private double blockSize;
-    private List<Block> blocks;
+    private BlockPalette palette;
+    private SlotStorage slots;
     private String[] fabricColours;
+    private PatchTally tally;
+    private BlockTypeIndex blockTypeIndex;
+    private List<QuiltObserver> observers;
+    private int parallelThreshold;
 
     // EFFECTS: Creates a quilt grid with space for given number of blocks across/down of given side length (in inches)
     public Quilt(int numBlocksAcross, int numBlocksDown, double blockSize) throws IllegalQuiltSizeException {
@@ -46,21 +74,44 @@ public class Quilt implements Saveable {
             this.numBlocksAcross = numBlocksAcross;
             this.numBlocksDown = numBlocksDown;
             this.blockSize = blockSize;
-
-            // ensures list of blocks is always exactly as long as the number of blocks in the quilt, so that blocks can
-            // be added in the right slots
-            int totalBlocks = numBlocksAcross * numBlocksDown;
-            this.blocks = new ArrayList<>(totalBlocks);
-            for (int i = 0; i < totalBlocks; i++) {
-                blocks.add(i, null);
-            }
-
+            this.palette = new BlockPalette();
+            this.slots = makeSlotStorage(numBlocksAcross * numBlocksDown);
             fabricColours = new String[]{null, null};
+            tally = new PatchTally();
+            blockTypeIndex = new BlockTypeIndex();
+            observers = new ArrayList<>();
+            parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
         }
     }
 
-    // EFFECTS: Creates a quilt; used only when deserializing quilt data from JSON using Gson
-    private Quilt() { }
+    // EFFECTS: creates a copy of given quilt with blocks of given size, with the same blocks and colours but no
+    //          observers
+    private Quilt(Quilt quilt, double blockSize) {
+        numBlocksAcross = quilt.numBlocksAcross;
+        numBlocksDown = quilt.numBlocksDown;
+        this.blockSize = blockSize;
+        palette = new BlockPalette(quilt.palette);
+        slots = quilt.isSparse() ? new SparseSlotStorage(quilt.slots)
+                : new DenseSlotStorage((DenseSlotStorage) quilt.slots);
+        fabricColours = quilt.fabricColours.clone();
+        tally = new PatchTally();
+        tally.addAll(quilt.tally);
+        blockTypeIndex = new BlockTypeIndex(quilt.blockTypeIndex);
+        observers = new ArrayList<>();
+        parallelThreshold = quilt.parallelThreshold;
+    }
+
+    // EFFECTS: returns a copy of the quilt that later changes to the quilt do not affect, e.g. to save it on another
+    //          thread while the quilt is still being edited; the copy has no observers
+    public Quilt copy() {
+        return new Quilt(this, blockSize);
+    }
+
+    // REQUIRES: blockSize > 0
+    // EFFECTS: returns a copy of the quilt like copy(), but with blocks of given size
+    Quilt copy(double blockSize) {
+        return new Quilt(this, blockSize);
+    }
 
     // getters
     public int getNumBlocksAcross() {
@@ -87,8 +138,30 @@ public class Quilt implements Saveable {
         return blockSize;
     }
 
+    public double getPatchSize() {
+        return blockSize / Math.sqrt(Block.NUM_OF_PATCHES);
+    }
+
+    // EFFECTS: returns an unmodifiable list view of the blocks in the quilt, with null for empty slots; the view
+    //          reads the quilt's slots as it is used, so no list of blocks is ever built
     public List<Block> getBlocks() {
-        return blocks;
+        return new AbstractList<Block>() {
+            @Override
+            public Block get(int slot) {
+                return getBlock(slot);
+            }
+
+            @Override
+            public int size() {
+                return slots.size();
+            }
+        };
+    }
+
+    // REQUIRES: 0 <= slot < getTotalBlocks()
+    // EFFECTS: returns the block in given slot, or null if the slot is empty
+    public Block getBlock(int slot) {
+        return palette.get(slots.get(slot));
     }
 
     public String[] getFabricColours() {
@@ -98,6 +171,9 @@ public class Quilt implements Saveable {
     // setters
     public void setFabricColours(String colour1, String colour2) {
         fabricColours = new String[]{colour1, colour2};
+        for (QuiltObserver observer : observers) {
+            observer.fabricColoursChanged(this);
+        }
     }
 
     // MODIFIES: this
@@ -106,8 +182,18 @@ public class Quilt implements Saveable {
         if (slot < 0 || slot >= getTotalBlocks()) {
             throw new SlotOutOfBoundsException();
         } else {
-            Block blockToAdd = new Block(blockType);
-            blocks.set(slot, blockToAdd);
+            setSlot(slot, palette.idOf(blockType));
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: puts given block in the given slot of the quilt; replaces current block if one exists
+    //          blocks of a type already in the quilt are replaced by the quilt's shared block of that type
+    public void setBlock(Block block, int slot) throws SlotOutOfBoundsException {
+        if (slot < 0 || slot >= getTotalBlocks()) {
+            throw new SlotOutOfBoundsException();
+        } else {
+            setSlot(slot, block == null ? BlockPalette.EMPTY : palette.idOf(block));
         }
     }
 
@@ -117,60 +203,373 @@ public class Quilt implements Saveable {
         if (slot < 0 || slot >= getTotalBlocks()) {
             throw new SlotOutOfBoundsException();
         } else {
-            blocks.set(slot, null);
+            setSlot(slot, BlockPalette.EMPTY);
         }
     }
 
-    // EFFECTS: calculates the total number of patches needed of given type
-    public int countPatches(String patchType) {
-        int total = 0;
-        for (Block b : blocks) {
-            if (b != null) {
-                total += b.countPatches(patchType);
+    // MODIFIES: this
+    // EFFECTS: puts a block of given type in every slot of the region numRows high and numCols wide whose top left
+    //          slot is in given row and column; throws SlotOutOfBoundsException if the region is not in the quilt
+    public void fillRegion(String blockType, int row, int col, int numRows, int numCols)
+            throws BlockUnavailableException, SlotOutOfBoundsException {
+        checkRegion(row, col, numRows, numCols);
+        writeRegion(palette.idOf(blockType), row, col, numRows, numCols);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every block from the region numRows high and numCols wide whose top left slot is in given row
+    //          and column; throws SlotOutOfBoundsException if the region is not in the quilt
+    public void clearRegion(int row, int col, int numRows, int numCols) throws SlotOutOfBoundsException {
+        checkRegion(row, col, numRows, numCols);
+        writeRegion(BlockPalette.EMPTY, row, col, numRows, numCols);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces every block of type blockType in the quilt with a block of type newBlockType, and returns
+    //          the number of blocks replaced; newBlockType only joins the palette if some block is replaced
+    //          throws BlockUnavailableException if newBlockType is not a known type, even if nothing would be replaced
+    public int replaceAll(String blockType, String newBlockType) throws BlockUnavailableException {
+        short newBlockId = palette.find(newBlockType);
+        Block newBlock = newBlockId == BlockPalette.EMPTY ? new Block(newBlockType) : null;
+        int[] positions = blockTypeIndex.positionsOf(palette.find(blockType));
+        Change change = new Change(!observers.isEmpty());
+        for (int slot : positions) {
+            if (newBlockId == BlockPalette.EMPTY) {
+                newBlockId = palette.idOf(newBlock);
+            }
+            writeSlot(slot, newBlockId, change);
+        }
+        finishChange(change);
+        return change.count;
+    }
+
+    // REQUIRES: motif has at least one row, and all its rows have the same, non-zero, length
+    // MODIFIES: this
+    // EFFECTS: repeats motif across the whole quilt, starting from the top left slot; motif[r][c] is the block type
+    //          for every slot whose row is r more than a multiple of the motif height and whose column is c more
+    //          than a multiple of the motif width; null entries leave those slots empty
+    public void tileMotif(String[][] motif) throws BlockUnavailableException {
+        short[][] motifIds = new short[motif.length][motif[0].length];
+        for (int r = 0; r < motif.length; r++) {
+            for (int c = 0; c < motif[r].length; c++) {
+                motifIds[r][c] = motif[r][c] == null ? BlockPalette.EMPTY : palette.idOf(motif[r][c]);
+            }
+        }
+        Change change = new Change(!observers.isEmpty());
+        makeRoomFor(getTotalBlocks());
+        for (int slot = 0; slot < getTotalBlocks(); slot++) {
+            short[] motifRow = motifIds[(slot / numBlocksAcross) % motifIds.length];
+            writeSlot(slot, motifRow[(slot % numBlocksAcross) % motifRow.length], change);
+        }
+        finishChange(change);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds given observer, which will be told about every later change to the quilt's blocks and colours
+    public void addObserver(QuiltObserver observer) {
+        observers.add(observer);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes given observer, if it was observing the quilt
+    public void removeObserver(QuiltObserver observer) {
+        observers.remove(observer);
+    }
+
+    // EFFECTS: throws SlotOutOfBoundsException unless the region numRows high and numCols wide whose top left slot
+    //          is in given row and column lies inside the quilt
+    private void checkRegion(int row, int col, int numRows, int numCols) throws SlotOutOfBoundsException {
+        if (row < 0 || col < 0 || numRows < 0 || numCols < 0
+                || row + numRows > numBlocksDown || col + numCols > numBlocksAcross) {
+            throw new SlotOutOfBoundsException();
+        }
+    }
+
+    // REQUIRES: the region lies inside the quilt and blockId is EMPTY or an id from the quilt's palette
+    // MODIFIES: this
+    // EFFECTS: puts the block with given id in every slot of the region numRows high and numCols wide whose top left
+    //          slot is in given row and column
+    private void writeRegion(short blockId, int row, int col, int numRows, int numCols) {
+        Change change = new Change(!observers.isEmpty());
+        if (blockId != BlockPalette.EMPTY) {
+            makeRoomFor(numRows * numCols);
+        }
+        for (int r = row; r < row + numRows; r++) {
+            for (int c = col; c < col + numCols; c++) {
+                writeSlot(r * numBlocksAcross + c, blockId, change);
+            }
+        }
+        finishChange(change);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: switches to dense slot storage before a bulk change that may fill given number of slots, if the
+    //          quilt would end up dense anyway, so the slots are not first added one by one to sparse storage
+    private void makeRoomFor(int numSlots) {
+        if (isSparse() && (long) slots.countOccupied() + numSlots > slots.size() / DENSE_OCCUPANCY) {
+            slots = new DenseSlotStorage(slots);
+        }
+    }
+
+    // EFFECTS: returns empty slot storage suited to a quilt with given number of slots
+    private static SlotStorage makeSlotStorage(int totalBlocks) {
+        if (totalBlocks >= SPARSE_MIN_SLOTS) {
+            return new SparseSlotStorage(totalBlocks);
+        } else {
+            return new DenseSlotStorage(totalBlocks);
+        }
+    }
+
+    // REQUIRES: 0 <= slot < getTotalBlocks() and blockId is EMPTY or an id from the quilt's palette
+    // MODIFIES: this
+    // EFFECTS: puts the block with given id in given slot and notifies observers if the slot changed
+    private void setSlot(int slot, short blockId) {
+        Change change = new Change(!observers.isEmpty());
+        writeSlot(slot, blockId, change);
+        finishChange(change);
+    }
+
+    // REQUIRES: 0 <= slot < getTotalBlocks() and blockId is EMPTY or an id from the quilt's palette
+    // MODIFIES: this, change
+    // EFFECTS: puts the block with given id in given slot and updates the running tally and block type index;
+    //          records the slot in change if it now holds a different block
+    private void writeSlot(int slot, short blockId, Change change) {
+        short replacedId = slots.set(slot, blockId);
+        if (replacedId != blockId) {
+            tally.remove(palette.get(replacedId));
+            tally.add(palette.get(blockId));
+            blockTypeIndex.update(slot, replacedId, blockId);
+            change.record(slot);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: finishes given change: picks the slot storage to suit the quilt and sends observers a single
+    //          notification, unless nothing changed
+    private void finishChange(Change change) {
+        if (change.count > 0) {
+            chooseSlotStorage();
+            for (QuiltObserver observer : observers) {
+                observer.blocksChanged(this, change.changedSlots);
+            }
+        }
+    }
+
+    // EFFECTS: returns the number of blocks of given type in the quilt
+    public int countBlocks(String blockType) {
+        return blockTypeIndex.count(palette.find(blockType));
+    }
+
+    // EFFECTS: returns the slots holding a block of given type, in increasing order
+    public int[] getSlotsOf(String blockType) {
+        return blockTypeIndex.positionsOf(palette.find(blockType));
+    }
+
+    // EFFECTS: returns the set of slots holding a block of given type; changing the set does not change the quilt
+    BitSet getSlotSet(String blockType) {
+        return blockTypeIndex.copyOf(palette.find(blockType));
+    }
+
+    // EFFECTS: returns the number of blocks of each type in the quilt, sorted by block type; block types that are not
+    //          in the quilt are left out
+    public Map<String, Integer> getBlockHistogram() {
+        Map<String, Integer> histogram = new TreeMap<>();
+        for (short blockId = 1; blockId <= palette.size(); blockId++) {
+            int count = blockTypeIndex.count(blockId);
+            if (count > 0) {
+                histogram.put(palette.get(blockId).getBlockType(), count);
             }
         }
-        return total;
+        return histogram;
+    }
+
+    // EFFECTS: calculates the total number of patches needed of given type
+    public int countPatches(String patchType) {
+        PatchType type = PatchType.fromTypeName(patchType);
+        return type == null ? 0 : tally.countPatches(type);
     }
 
     // EFFECTS: calculates the total fabric needed of given type, rounded up to nearest square inch
     public double calculateFabric(String fabric) {
-        double total = 0;
-        for (Block b : blocks) {
-            if (b != null) {
-                total += b.calculateFabric(fabric, blockSize);
-            }
+        return calculateFabric(fabric, blockSize);
+    }
+
+    // REQUIRES: blockSize > 0
+    // EFFECTS: calculates the total fabric needed of given type if the quilt's blocks were of given size (in inches),
+    //          rounded up to nearest square inch
+    public double calculateFabric(String fabric, double blockSize) {
+        Fabric fabricType = Fabric.fromLabel(fabric);
+        if (fabricType == null) {
+            return 0;
         }
-        return Math.ceil(total);
+        double[] coefficients = tally.getFabricCoefficients()[fabricType.ordinal()];
+        double patchSize = blockSize / Math.sqrt(Block.NUM_OF_PATCHES);
+        return Math.ceil(PatchType.evaluateFabricCoefficients(coefficients, patchSize));
+    }
+
+    // EFFECTS: calculates everything needed to make the quilt in a single pass: fabric needed of every fabric type
+    //          and patches needed of every patch type, plus backing and binding; amounts are rounded up the same way
+    //          as calculateFabric, calculateTotalBacking, calculateBindingLength and calculateTotalBinding
+    public BillOfMaterials billOfMaterials() {
+        return billOfMaterials(blockSize);
+    }
+
+    // REQUIRES: blockSize > 0
+    // EFFECTS: calculates everything needed to make the quilt if its blocks were of given size (in inches)
+    public BillOfMaterials billOfMaterials(double blockSize) {
+        return makeBillOfMaterials(tally.getFabricCoefficients(), tally.countPatches(), blockSize);
+    }
+
+    // REQUIRES: 0 < fromBlockSize <= toBlockSize, step > 0
+    // EFFECTS: calculates everything needed to make the quilt for every block size from fromBlockSize to toBlockSize
+    //          (inclusive) in steps of given size, in order of block size; the quilt's fabric coefficients are only
+    //          worked out once, so each block size costs just a few multiplications
+    public List<BillOfMaterials> sweepBillOfMaterials(double fromBlockSize, double toBlockSize, double step) {
+        double[][] coefficients = tally.getFabricCoefficients();
+        int[] patchCounts = tally.countPatches();
+        int numSizes = (int) Math.floor((toBlockSize - fromBlockSize) / step + 1e-9) + 1;
+        List<BillOfMaterials> bills = new ArrayList<>(numSizes);
+        for (int i = 0; i < numSizes; i++) {
+            bills.add(makeBillOfMaterials(coefficients, patchCounts, fromBlockSize + i * step));
+        }
+        return bills;
+    }
+
+    // EFFECTS: makes the bill of materials for a quilt of given block size, from the quilt's fabric coefficients
+    //          (indexed by Fabric.ordinal()) and patch counts (indexed by PatchType.ordinal())
+    private BillOfMaterials makeBillOfMaterials(double[][] coefficients, int[] patchCounts, double blockSize) {
+        double patchSize = blockSize / Math.sqrt(Block.NUM_OF_PATCHES);
+        double[] fabricAmounts = new double[coefficients.length];
+        for (int fabric = 0; fabric < coefficients.length; fabric++) {
+            fabricAmounts[fabric] = Math.ceil(PatchType.evaluateFabricCoefficients(coefficients[fabric], patchSize));
+        }
+        return new BillOfMaterials(blockSize, fabricAmounts, patchCounts.clone(), calculateTotalBacking(blockSize),
+                calculateBindingLength(blockSize), calculateTotalBinding(blockSize));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: switches between sparse and dense slot storage when the number of filled slots crosses a threshold
+    private void chooseSlotStorage() {
+        int occupied = slots.countOccupied();
+        if (isSparse() && occupied > slots.size() / DENSE_OCCUPANCY) {
+            slots = new DenseSlotStorage(slots);
+        } else if (!isSparse() && slots.size() >= SPARSE_MIN_SLOTS && occupied < slots.size() / SPARSE_OCCUPANCY) {
+            slots = new SparseSlotStorage(slots);
+        }
+    }
+
+    // EFFECTS: returns the number of block types in the quilt's palette, including any no longer in the quilt
+    int getPaletteSize() {
+        return palette.size();
+    }
+
+    // EFFECTS: returns true if the quilt only stores its occupied slots
+    boolean isSparse() {
+        return slots instanceof SparseSlotStorage;
+    }
+
+    // EFFECTS: returns the number of blocks the quilt must have in it before it is recounted in parallel
+    int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    // REQUIRES: threshold >= 0
+    // MODIFIES: this
+    // EFFECTS: sets the number of blocks the quilt must have in it before it is recounted in parallel
+    void setParallelThreshold(int threshold) {
+        parallelThreshold = threshold;
+    }
+
+    // EFFECTS: builds a new tally by walking every occupied slot in the quilt; quilts with at least
+    //          parallelThreshold blocks are split into ranges of slots that are counted in parallel
+    private PatchTally recountTally() {
+        if (slots.countOccupied() >= parallelThreshold) {
+            return ForkJoinPool.commonPool().invoke(new RecountTask(slots, palette, 0, slots.size()));
+        } else {
+            return RecountTask.recount(slots, palette, 0, slots.size());
+        }
+    }
+
+    // EFFECTS: returns true if the running tally matches a full recount of the quilt; a check for tests to make
+    //          after changing the quilt, since a recount walks every slot and is far too slow to make on every change
+    boolean tallyMatchesRecount() {
+        return tally.equals(recountTally());
     }
 
     // EFFECTS: calculates the total backing needed for the quilt, rounded up to nearest square inch
     public double calculateTotalBacking() {
-        double total = (getLength() + 3) * (getWidth() + 3);
+        return calculateTotalBacking(blockSize);
+    }
+
+    // REQUIRES: blockSize > 0
+    // EFFECTS: calculates the total backing needed if the quilt's blocks were of given size, rounded up to nearest
+    //          square inch
+    public double calculateTotalBacking(double blockSize) {
+        double total = (numBlocksDown * blockSize + 3) * (numBlocksAcross * blockSize + 3);
         return Math.ceil(total);
     }
 
     // EFFECTS: calculates the total binding length needed using regular binding method, rounded up to nearest inch
     public double calculateBindingLength() {
-        double total = (getLength() * 2) + (getWidth() * 2) + 10;
+        return calculateBindingLength(blockSize);
+    }
+
+    // REQUIRES: blockSize > 0
+    // EFFECTS: calculates the total binding length needed if the quilt's blocks were of given size, rounded up to
+    //          nearest inch
+    public double calculateBindingLength(double blockSize) {
+        double total = (numBlocksDown * blockSize * 2) + (numBlocksAcross * blockSize * 2) + 10;
         return Math.ceil(total);
     }
 
     // EFFECTS: calculates the total fabric needed for binding, rounded up to nearest square inch
     public double calculateTotalBinding() {
-        double total = calculateBindingLength() * BINDING_WIDTH;
+        return calculateTotalBinding(blockSize);
+    }
+
+    // REQUIRES: blockSize > 0
+    // EFFECTS: calculates the total fabric needed for binding if the quilt's blocks were of given size, rounded up to
+    //          nearest square inch
+    public double calculateTotalBinding(double blockSize) {
+        double total = calculateBindingLength(blockSize) * BINDING_WIDTH;
         return Math.ceil(total);
     }
 
     // MODIFIES: fileWriter
-    // EFFECTS: converts the quilt to JSON and writes the JSON data to fileWriter
+    // EFFECTS: streams the quilt as JSON to fileWriter, laid out to be human-readable if prettyPrint is true, and
+    //          closes fileWriter
     @Override
-    public void save(FileWriter fileWriter) throws IOException {
-        // turns the quilt into JSON data
-        GsonConfigured gsonConfigured = new GsonConfigured();
-        String jsonQuilt = gsonConfigured.getGson().toJson(this);
-        // writes the JSON data to fileWriter
-        fileWriter.write(jsonQuilt);
-        fileWriter.close();
+    public void save(OutputStreamWriter fileWriter, boolean prettyPrint) throws IOException {
+        Gson gson = prettyPrint ? GsonConfigured.getPrettyGson() : GsonConfigured.getGson();
+        try (BufferedWriter bufferedWriter = new BufferedWriter(fileWriter)) {
+            gson.toJson(this, Quilt.class, bufferedWriter);
+        } catch (JsonIOException e) {
+            throw new IOException("could not save quilt", e);
+        }
+    }
+
+    /*
+    Represents the slots changed by one operation on the quilt
+    The changed slots are only collected when someone is observing the quilt, since a set of slots takes space in
+    proportion to the highest slot in it, which would make every change to a large quilt slow
+     */
+    private static class Change {
+        private final BitSet changedSlots;
+        private int count;
+
+        // EFFECTS: creates an empty change, which collects the changed slots only if observed is true
+        private Change(boolean observed) {
+            changedSlots = observed ? new BitSet() : null;
+        }
+
+        // MODIFIES: this
+        // EFFECTS: records that given slot changed
+        private void record(int slot) {
+            count++;
+            if (changedSlots != null) {
+                changedSlots.set(slot);
+            }
+        }
     }
 
 }
@@ -0,0 +1,144 @@
+package model;
+
+import model.blocks.Block;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+Represents the differences between two versions of a quilt: which slots changed and how, and whether the quilt's size,
+block size or fabric colours changed
+Slots are matched up by row and column, so when the size of the quilt changes, slots that are only in one version
+count as empty in the other
+When both versions are the same size, the changed slots are found from each quilt's index of the slots holding each
+block type, comparing a whole word of slots at a time, so the slots that did not change are never looked at
+A diff is a snapshot and does not change when either quilt does
+ */
+
+public final class QuiltDiff {
+
+    private final boolean sizeChanged;
+    private final boolean blockSizeChanged;
+    private final boolean[] fabricColoursChanged;
+    private final List<SlotChange> slotChanges;
+
+    // EFFECTS: creates a diff with given changes
+    private QuiltDiff(boolean sizeChanged, boolean blockSizeChanged, boolean[] fabricColoursChanged,
+                      List<SlotChange> slotChanges) {
+        this.sizeChanged = sizeChanged;
+        this.blockSizeChanged = blockSizeChanged;
+        this.fabricColoursChanged = fabricColoursChanged;
+        this.slotChanges = Collections.unmodifiableList(slotChanges);
+    }
+
+    // EFFECTS: returns the differences that turn quilt from into quilt to
+    public static QuiltDiff compare(Quilt from, Quilt to) {
+        String[] fromColours = from.getFabricColours();
+        String[] toColours = to.getFabricColours();
+        boolean[] fabricColoursChanged = new boolean[fromColours.length];
+        for (int index = 0; index < fabricColoursChanged.length; index++) {
+            fabricColoursChanged[index] = !Objects.equals(fromColours[index], toColours[index]);
+        }
+        boolean sizeChanged = !isSameSize(from, to);
+        List<SlotChange> slotChanges = sizeChanged ? compareAllSlots(from, to) : compareChangedSlots(from, to);
+        return new QuiltDiff(sizeChanged, from.getBlockSize() != to.getBlockSize(), fabricColoursChanged,
+                slotChanges);
+    }
+
+    // EFFECTS: returns true if the quilts have the same number of blocks across and down
+    static boolean isSameSize(Quilt quilt, Quilt other) {
+        return quilt.getNumBlocksAcross() == other.getNumBlocksAcross()
+                && quilt.getNumBlocksDown() == other.getNumBlocksDown();
+    }
+
+    // REQUIRES: the quilts are the same size
+    // EFFECTS: returns the changes to the slots of quilt from that turn it into quilt to, row by row; a slot changed
+    //          if it holds a given block type in one quilt but not the other
+    private static List<SlotChange> compareChangedSlots(Quilt from, Quilt to) {
+        Set<String> blockTypes = new TreeSet<>(from.getBlockHistogram().keySet());
+        blockTypes.addAll(to.getBlockHistogram().keySet());
+        BitSet changed = new BitSet();
+        for (String blockType : blockTypes) {
+            BitSet slots = from.getSlotSet(blockType);
+            slots.xor(to.getSlotSet(blockType));
+            changed.or(slots);
+        }
+        List<SlotChange> slotChanges = new ArrayList<>(changed.cardinality());
+        int across = from.getNumBlocksAcross();
+        for (int slot = changed.nextSetBit(0); slot >= 0; slot = changed.nextSetBit(slot + 1)) {
+            slotChanges.add(new SlotChange(slot / across, slot % across, blockTypeOf(from.getBlock(slot)),
+                    blockTypeOf(to.getBlock(slot))));
+        }
+        return slotChanges;
+    }
+
+    // EFFECTS: returns the changes to the slots of quilt from that turn it into quilt to, row by row, over every
+    //          row and column in either quilt
+    private static List<SlotChange> compareAllSlots(Quilt from, Quilt to) {
+        List<SlotChange> slotChanges = new ArrayList<>();
+        int down = Math.max(from.getNumBlocksDown(), to.getNumBlocksDown());
+        int across = Math.max(from.getNumBlocksAcross(), to.getNumBlocksAcross());
+        for (int row = 0; row < down; row++) {
+            for (int col = 0; col < across; col++) {
+                String fromBlockType = blockTypeAt(from, row, col);
+                String toBlockType = blockTypeAt(to, row, col);
+                if (!Objects.equals(fromBlockType, toBlockType)) {
+                    slotChanges.add(new SlotChange(row, col, fromBlockType, toBlockType));
+                }
+            }
+        }
+        return slotChanges;
+    }
+
+    // EFFECTS: returns the type of the block in given row and column of the quilt, or null if the slot is empty or
+    //          outside the quilt
+    static String blockTypeAt(Quilt quilt, int row, int col) {
+        if (row >= quilt.getNumBlocksDown() || col >= quilt.getNumBlocksAcross()) {
+            return null;
+        }
+        return blockTypeOf(quilt.getBlock(row * quilt.getNumBlocksAcross() + col));
+    }
+
+    // EFFECTS: returns the type of given block, or null if there is no block
+    private static String blockTypeOf(Block block) {
+        return block == null ? null : block.getBlockType();
+    }
+
+    // getters
+    public boolean isSizeChanged() {
+        return sizeChanged;
+    }
+
+    public boolean isBlockSizeChanged() {
+        return blockSizeChanged;
+    }
+
+    // EFFECTS: returns true if the fabric colour at given index (0 for fabric A, 1 for fabric B) changed
+    public boolean isFabricColourChanged(int index) {
+        return fabricColoursChanged[index];
+    }
+
+    // EFFECTS: returns the changed slots, row by row
+    public List<SlotChange> getSlotChanges() {
+        return slotChanges;
+    }
+
+    // EFFECTS: returns true if the two quilts are the same
+    public boolean isEmpty() {
+        if (sizeChanged || blockSizeChanged || !slotChanges.isEmpty()) {
+            return false;
+        }
+        for (boolean changed : fabricColoursChanged) {
+            if (changed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
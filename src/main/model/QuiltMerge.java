@@ -0,0 +1,136 @@
+package model;
+
+import exceptions.SlotOutOfBoundsException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/*
+Represents the result of a three-way merge of two versions of a quilt (ours and theirs) made from a common base
+Anything only one version changed from the base is taken from that version; anything both changed the same way is
+kept; anything both changed in different ways is a conflict, and our version of it is kept
+The merged quilt starts as a copy of whichever version has the merged size, and only the slots the other version
+changed from the base are then visited (see QuiltDiff), so merging costs about as much as the changes
+A merge is a snapshot and does not change when any of the quilts do
+ */
+
+public final class QuiltMerge {
+
+    private final Quilt mergedQuilt;
+    private final List<MergeConflict> conflicts;
+
+    // EFFECTS: creates the result of a merge
+    private QuiltMerge(Quilt mergedQuilt, List<MergeConflict> conflicts) {
+        this.mergedQuilt = mergedQuilt;
+        this.conflicts = Collections.unmodifiableList(conflicts);
+    }
+
+    // EFFECTS: merges the changes made to base in ours and in theirs, and returns the merged quilt with the
+    //          conflicts found; none of the quilts are changed
+    public static QuiltMerge merge(Quilt base, Quilt ours, Quilt theirs) {
+        List<MergeConflict> conflicts = new ArrayList<>();
+        boolean theirSize = QuiltDiff.isSameSize(base, ours) && !QuiltDiff.isSameSize(base, theirs);
+        if (!QuiltDiff.isSameSize(base, ours) && !QuiltDiff.isSameSize(base, theirs)
+                && !QuiltDiff.isSameSize(ours, theirs)) {
+            conflicts.add(new MergeConflict(MergeConflict.SIZE, 0, 0, sizeOf(base), sizeOf(ours), sizeOf(theirs)));
+        }
+        Quilt primary = theirSize ? theirs : ours;
+        Quilt secondary = theirSize ? ours : theirs;
+        Quilt merged = primary.copy(mergeBlockSize(base, ours, theirs, conflicts));
+        mergeColours(merged, base, ours, theirs, conflicts);
+        BitSet primaryChanged = new BitSet();
+        for (SlotChange change : QuiltDiff.compare(base, primary).getSlotChanges()) {
+            if (isInside(merged, change)) {
+                primaryChanged.set(change.getRow() * merged.getNumBlocksAcross() + change.getCol());
+            }
+        }
+        for (SlotChange change : QuiltDiff.compare(base, secondary).getSlotChanges()) {
+            mergeSlot(merged, secondary, change, primaryChanged, theirSize, conflicts);
+        }
+        return new QuiltMerge(merged, conflicts);
+    }
+
+    // EFFECTS: returns the merged block size, adding a conflict if ours and theirs both changed it differently
+    private static double mergeBlockSize(Quilt base, Quilt ours, Quilt theirs, List<MergeConflict> conflicts) {
+        double blockSize = ours.getBlockSize();
+        if (blockSize == base.getBlockSize()) {
+            return theirs.getBlockSize();
+        } else if (theirs.getBlockSize() != base.getBlockSize() && theirs.getBlockSize() != blockSize) {
+            conflicts.add(new MergeConflict(MergeConflict.BLOCK_SIZE, 0, 0, Double.toString(base.getBlockSize()),
+                    Double.toString(blockSize), Double.toString(theirs.getBlockSize())));
+        }
+        return blockSize;
+    }
+
+    // MODIFIES: merged
+    // EFFECTS: sets the merged fabric colours, adding a conflict for each colour ours and theirs both changed
+    //          differently
+    private static void mergeColours(Quilt merged, Quilt base, Quilt ours, Quilt theirs,
+                                     List<MergeConflict> conflicts) {
+        String[] baseColours = base.getFabricColours();
+        String[] ourColours = ours.getFabricColours();
+        String[] theirColours = theirs.getFabricColours();
+        String[] colours = ourColours.clone();
+        for (int index = 0; index < colours.length; index++) {
+            if (Objects.equals(ourColours[index], baseColours[index])) {
+                colours[index] = theirColours[index];
+            } else if (!Objects.equals(theirColours[index], baseColours[index])
+                    && !Objects.equals(theirColours[index], ourColours[index])) {
+                conflicts.add(new MergeConflict(MergeConflict.FABRIC_COLOUR, 0, index, baseColours[index],
+                        ourColours[index], theirColours[index]));
+            }
+        }
+        merged.setFabricColours(colours[0], colours[1]);
+    }
+
+    // MODIFIES: merged
+    // EFFECTS: applies a change the secondary version made to a slot, unless the primary version (which merged was
+    //          copied from) also changed that slot, in which case a conflict is added if they changed it differently
+    private static void mergeSlot(Quilt merged, Quilt secondary, SlotChange change, BitSet primaryChanged,
+                                  boolean secondaryIsOurs, List<MergeConflict> conflicts) {
+        int slot = change.getRow() * merged.getNumBlocksAcross() + change.getCol();
+        if (isInside(merged, change) && !primaryChanged.get(slot)) {
+            try {
+                int secondarySlot = change.getRow() * secondary.getNumBlocksAcross() + change.getCol();
+                merged.setBlock(change.getToBlockType() == null ? null : secondary.getBlock(secondarySlot), slot);
+            } catch (SlotOutOfBoundsException e) {
+                throw new IllegalStateException("merged slot is outside the merged quilt", e);
+            }
+            return;
+        }
+        String primaryBlockType = QuiltDiff.blockTypeAt(merged, change.getRow(), change.getCol());
+        if (!Objects.equals(primaryBlockType, change.getToBlockType())) {
+            conflicts.add(new MergeConflict(MergeConflict.SLOT, change.getRow(), change.getCol(),
+                    change.getFromBlockType(), secondaryIsOurs ? change.getToBlockType() : primaryBlockType,
+                    secondaryIsOurs ? primaryBlockType : change.getToBlockType()));
+        }
+    }
+
+    // EFFECTS: returns true if the slot of given change is inside the quilt
+    private static boolean isInside(Quilt quilt, SlotChange change) {
+        return change.getRow() < quilt.getNumBlocksDown() && change.getCol() < quilt.getNumBlocksAcross();
+    }
+
+    // EFFECTS: returns the size of the quilt as text, in blocks across by blocks down
+    private static String sizeOf(Quilt quilt) {
+        return quilt.getNumBlocksAcross() + "x" + quilt.getNumBlocksDown();
+    }
+
+    // getters
+    public Quilt getMergedQuilt() {
+        return mergedQuilt;
+    }
+
+    public List<MergeConflict> getConflicts() {
+        return conflicts;
+    }
+
+    // EFFECTS: returns true if the merge found any conflicts
+    public boolean hasConflicts() {
+        return !conflicts.isEmpty();
+    }
+
+}
@@ -0,0 +1,19 @@
+package model;
+
+import java.util.BitSet;
+
+/*
+Specifies an observer that is told when blocks or fabric colours in a quilt change
+Each change to a quilt's blocks, whether to one slot or to a whole region, is reported with a single notification
+ */
+
+public interface QuiltObserver {
+
+    // EFFECTS: responds to the blocks in changedSlots of given quilt having been added, replaced or removed
+    void blocksChanged(Quilt quilt, BitSet changedSlots);
+
+    // EFFECTS: responds to the fabric colours of given quilt having been changed; does nothing by default
+    default void fabricColoursChanged(Quilt quilt) {
+    }
+
+}
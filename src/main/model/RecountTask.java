@@ -0,0 +1,55 @@
+package model;
+
+import java.util.concurrent.RecursiveTask;
+
+/*
+Recounts the patches in a range of quilt slots, splitting big ranges in half and counting the halves in parallel
+The tally only holds whole-number counts, so the result is exactly the same however the range is split up
+ */
+
+class RecountTask extends RecursiveTask<PatchTally> {
+
+    private static final long serialVersionUID = 1L;
+
+    // ranges with no more slots than this are counted directly instead of being split further
+    static final int SPLIT_SIZE = 16384;
+
+    private final SlotStorage slots;
+    private final BlockPalette palette;
+    private final int fromSlot;
+    private final int toSlot;
+
+    // REQUIRES: 0 <= fromSlot <= toSlot <= slots.size(), and slots and palette are not changed while counting
+    // EFFECTS: creates a task to count the patches in slots fromSlot (inclusive) to toSlot (exclusive)
+    RecountTask(SlotStorage slots, BlockPalette palette, int fromSlot, int toSlot) {
+        this.slots = slots;
+        this.palette = palette;
+        this.fromSlot = fromSlot;
+        this.toSlot = toSlot;
+    }
+
+    @Override
+    protected PatchTally compute() {
+        if (toSlot - fromSlot <= SPLIT_SIZE) {
+            return recount(slots, palette, fromSlot, toSlot);
+        }
+        int middle = fromSlot + (toSlot - fromSlot) / 2;
+        RecountTask firstHalf = new RecountTask(slots, palette, fromSlot, middle);
+        RecountTask secondHalf = new RecountTask(slots, palette, middle, toSlot);
+        firstHalf.fork();
+        PatchTally tally = secondHalf.compute();
+        tally.addAll(firstHalf.join());
+        return tally;
+    }
+
+    // REQUIRES: 0 <= fromSlot <= toSlot <= slots.size()
+    // EFFECTS: counts the patches in slots fromSlot (inclusive) to toSlot (exclusive) on the current thread
+    static PatchTally recount(SlotStorage slots, BlockPalette palette, int fromSlot, int toSlot) {
+        PatchTally tally = new PatchTally();
+        for (int slot = slots.nextOccupied(fromSlot); slot >= 0 && slot < toSlot; slot = slots.nextOccupied(slot + 1)) {
+            tally.add(palette.get(slots.get(slot)));
+        }
+        return tally;
+    }
+
+}
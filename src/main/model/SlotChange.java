@@ -0,0 +1,58 @@
+package model;
+
+/*
+Represents a change to one slot of a quilt between two versions of it: the block type in the slot before and after
+the change, with null for an empty slot (or a slot outside the quilt, if its size changed)
+ */
+
+public final class SlotChange {
+
+    /*
+    The kinds of change a slot can go through
+     */
+    public enum Kind {
+        ADDED,
+        REMOVED,
+        REPLACED
+    }
+
+    private final int row;
+    private final int col;
+    private final String fromBlockType;
+    private final String toBlockType;
+
+    // REQUIRES: fromBlockType and toBlockType are not both null, and are different
+    // EFFECTS: creates a change to the slot in given row and column from one block type to another
+    SlotChange(int row, int col, String fromBlockType, String toBlockType) {
+        this.row = row;
+        this.col = col;
+        this.fromBlockType = fromBlockType;
+        this.toBlockType = toBlockType;
+    }
+
+    // getters
+    public int getRow() {
+        return row;
+    }
+
+    public int getCol() {
+        return col;
+    }
+
+    public String getFromBlockType() {
+        return fromBlockType;
+    }
+
+    public String getToBlockType() {
+        return toBlockType;
+    }
+
+    // EFFECTS: returns whether a block was added to an empty slot, removed from the slot, or replaced by another
+    public Kind getKind() {
+        if (fromBlockType == null) {
+            return Kind.ADDED;
+        }
+        return toBlockType == null ? Kind.REMOVED : Kind.REPLACED;
+    }
+
+}
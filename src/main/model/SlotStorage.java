@@ -0,0 +1,28 @@
+package model;
+
+/*
+Specifies how a quilt stores which block is in each of its slots
+Each slot holds a small block id from the quilt's BlockPalette; BlockPalette.EMPTY means the slot has no block
+ */
+
+interface SlotStorage {
+
+    // EFFECTS: returns the number of slots
+    int size();
+
+    // REQUIRES: 0 <= slot < size()
+    // EFFECTS: returns the id of the block in given slot
+    short get(int slot);
+
+    // REQUIRES: 0 <= slot < size()
+    // MODIFIES: this
+    // EFFECTS: puts the block with given id in given slot, and returns the id of the block that was there before
+    short set(int slot, short blockId);
+
+    // EFFECTS: returns the first slot at or after fromSlot that holds a block, or -1 if there is none
+    int nextOccupied(int fromSlot);
+
+    // EFFECTS: returns the number of slots that hold a block
+    int countOccupied();
+
+}
@@ -0,0 +1,64 @@
+package model;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+Stores the block id of occupied slots only, keyed by slot number
+Empty slots take no space at all, which suits very large quilts that only have a few blocks in them
+ */
+
+class SparseSlotStorage implements SlotStorage {
+
+    private final int size;
+    private final TreeMap<Integer, Short> occupiedSlots;
+
+    // REQUIRES: size >= 0
+    // EFFECTS: creates storage for given number of slots, all empty
+    SparseSlotStorage(int size) {
+        this.size = size;
+        this.occupiedSlots = new TreeMap<>();
+    }
+
+    // EFFECTS: creates storage holding the same blocks as given storage
+    SparseSlotStorage(SlotStorage storage) {
+        this(storage.size());
+        for (int slot = storage.nextOccupied(0); slot >= 0; slot = storage.nextOccupied(slot + 1)) {
+            occupiedSlots.put(slot, storage.get(slot));
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public short get(int slot) {
+        Short blockId = occupiedSlots.get(slot);
+        return blockId == null ? BlockPalette.EMPTY : blockId;
+    }
+
+    @Override
+    public short set(int slot, short blockId) {
+        Short previous;
+        if (blockId == BlockPalette.EMPTY) {
+            previous = occupiedSlots.remove(slot);
+        } else {
+            previous = occupiedSlots.put(slot, blockId);
+        }
+        return previous == null ? BlockPalette.EMPTY : previous;
+    }
+
+    @Override
+    public int nextOccupied(int fromSlot) {
+        Map.Entry<Integer, Short> next = occupiedSlots.ceilingEntry(fromSlot);
+        return next == null ? -1 : next.getKey();
+    }
+
+    @Override
+    public int countOccupied() {
+        return occupiedSlots.size();
+    }
+
+}
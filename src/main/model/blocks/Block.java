@@ -1,66 +1,73 @@
 package model.blocks;
 
 
+import model.patches.Fabric;
 import model.patches.Patch;
+import model.patches.PatchType;
 import exceptions.BlockUnavailableException;
 
 import java.util.List;
 
 /*
 Represents one square block of a quilt with a name, a finished size (in inches), and a list of patches
-List of patches is automatically generated by from file based on the type of the block entered
+Patches are automatically generated from file based on the type of the block entered; the block only keeps its
+patches in packed form (see PackedBlock), and hands out shared Patch objects decoded on demand
 */
 
 public class Block {
 
-    private static final int NUM_OF_PATCHES = 9;
+    public static final int NUM_OF_PATCHES = 9;
 
-    private String blockType;
-    private List<Patch> patches;
+    private final String blockType;
+    private final long packedPatches;
 
     // REQUIRES: finishedSize > 0
     // EFFECTS: creates a block (list of patches) of the given type
     //          if blockType is not a known type, constructor will throw a BlockUnavailableException
     public Block(String blockType) throws BlockUnavailableException {
         this.blockType = blockType;
-        this.patches = BlockMap.getBlockPatchPattern(blockType);
+        this.packedPatches = BlockMap.getPackedPattern(blockType);
     }
 
-    // EFFECTS: Creates a block; used only when deserializing saved block data from JSON using GSON
-    private Block() { }
+    // EFFECTS: creates a block of the given type made of the given patches; used when reading saved blocks
+    //          throws IllegalArgumentException if the patches cannot be packed
+    public Block(String blockType, List<Patch> patches) {
+        this.blockType = blockType;
+        this.packedPatches = PackedBlock.encode(patches);
+    }
 
     // getters
     public List<Patch> getPatches() {
-        return patches;
+        return PackedBlock.decode(packedPatches);
     }
 
     public String getBlockType() {
         return blockType;
     }
 
+    public long getPackedPatches() {
+        return packedPatches;
+    }
+
     // EFFECTS: counts the number of patches of the given type needed to make the block
-    public double countPatches(String patchType) {
-        int count = 0;
-        for (Patch p : patches) {
-            if (p.getType().equals(patchType)) {
-                count += 1;
-            }
-        }
-        return count;
+    public int countPatches(String patchType) {
+        PatchType type = PatchType.fromTypeName(patchType);
+        return type == null ? 0 : countPatches(type);
+    }
+
+    // EFFECTS: counts the number of patches of the given type needed to make the block
+    public int countPatches(PatchType patchType) {
+        return PackedBlock.countPatches(packedPatches, patchType);
     }
 
     // REQUIRES: blockSize >= 0
     // EFFECTS: calculates amount of fabric (in square inches) needed of the given type to create block of given size
     public double calculateFabric(String fabric, double blockSize) {
-        double total = 0;
-        double patchSize = blockSize / Math.sqrt(NUM_OF_PATCHES);
-        for (Patch p : patches) {
-            if (p.containsFabric(fabric)) {
-                total += p.calculateFabric(fabric, patchSize);
-            }
+        Fabric fabricType = Fabric.fromLabel(fabric);
+        if (fabricType == null) {
+            return 0;
         }
-        return total;
+        return PackedBlock.calculateFabric(packedPatches, fabricType, blockSize / Math.sqrt(NUM_OF_PATCHES));
     }
 
 }
-
@@ -2,55 +2,362 @@ package model.blocks;
 
 /*
 Represents a map of all blocks pre-programmed into Patchwork
+The pattern folder is only scanned the first time the map is used, and each pattern file is only read the first time
+its block is asked for; warmUp() does both ahead of time, on background threads, so the program can start up without
+waiting for the whole block library to be read
+warmUp() loads the whole library from the pattern pack (see PatternPack) in one read; if the pack is missing or any
+pattern file was added, removed or changed since it was made, the pattern files are read in parallel instead and the
+pack is made again for next time
+While the pattern folder is watched (see watchPatternFolder), pattern files that are added, changed or removed are
+taken into the map straight away, one file at a time, and observers are told which block types changed
+Variants of a block are not stored in files, but made from the block's pattern the first time they are asked for,
+and cached like any other pattern: "rev <block>" has fabrics A and B swapped, "<block> mirrored" is mirrored left to
+right, and "<block> rotated 90" (or 180, or 270) is turned clockwise; they can be combined, as in
+"rev <block> mirrored rotated 90". A pattern file with a variant's name is used instead of making the variant
+Every block has its reversed variant listed as available, next to the block itself
+Pattern files may be JSON, or pattern notation (see PatternParser); if a block has both, the pattern notation is used
  */
 
+import com.google.gson.JsonParseException;
 import exceptions.BlockUnavailableException;
+import model.patches.Fabric;
 import model.patches.Patch;
+import persistence.PatternFolderWatcher;
+import persistence.PatternPack;
+import persistence.PatternParser;
 import persistence.Reader;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BlockMap {
 
     private static final String patternFileFolder = "./data/blockPatterns/";
     private static final String patternFileType = ".json";
-    private static Map<String, String> blockMap = makeAvailableBlockMap();
+    private static final String textPatternFileType = PatternParser.FILE_TYPE;
+    private static final File patternPackFile = new File("./data/blockPatterns.pack");
+    private static final String reversedPrefix = "rev ";
+    private static final String mirroredSuffix = " mirrored";
+    private static final String rotatedSuffix = " rotated ";
+    private static final Map<String, CachedPattern> patternCache = new ConcurrentHashMap<>();
+    private static final AtomicInteger patternCacheHits = new AtomicInteger();
+    private static final AtomicInteger patternCacheMisses = new AtomicInteger();
+    private static final List<BlockMapObserver> observers = new CopyOnWriteArrayList<>();
+    private static CompletableFuture<Set<String>> warmUp;
 
     // MODIFIES: this
     // EFFECTS: creates a map with block names as keys and block pattern file as values, for use by other classes
-    //          creates map once at program start
+    //          creates map once, the first time it is needed (see AvailableBlocks); the map is safe to change from
+    //          several threads at once, as the pattern folder changes (see reloadPatternFiles)
     // NOTE: Code for the creation of the BLOCK_MAP is based on a pattern from Joshua Bloch, Effective Java
     private static Map<String, String> makeAvailableBlockMap() {
         ArrayList<String> blockFiles = getBlockFileNames(patternFileFolder);
-        Map<String, String> map = new HashMap<>();
+        Map<String, String> map = new ConcurrentHashMap<>();
         for (String file : blockFiles) {
-            String blockName = formatBlockName(file);
-            map.put(blockName, file);
+            if (isPatternFile(file)) {
+                String blockName = formatBlockName(file);
+                if (!map.containsKey(blockName) || file.endsWith(textPatternFileType)) {
+                    map.put(blockName, file);
+                }
+            }
         }
-        return Collections.unmodifiableMap(map);
+        return map;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts loading every block pattern into the pattern cache on background threads, unless that has
+    //          already been started, and returns a future that completes with the block types that could be read,
+    //          in alphabetical order, once they all have been; blocks that cannot be read are left out, and if
+    //          loading failed altogether, it is started again
+    public static synchronized CompletableFuture<Set<String>> warmUp() {
+        if (warmUp == null || warmUp.isCompletedExceptionally()) {
+            warmUp = CompletableFuture.supplyAsync(BlockMap::loadLibrary);
+        }
+        return warmUp;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: loads every available block pattern into the pattern cache, reading the pattern files (see
+    //          loadPatternFiles) and then making the variants listed as available from them; returns the block types
+    //          that could be read, in alphabetical order
+    private static Set<String> loadLibrary() {
+        Map<String, Long> patterns = loadPatternFiles();
+        for (Map.Entry<String, Long> entry : patterns.entrySet()) {
+            patternCache.putIfAbsent(entry.getKey(),
+                    new CachedPattern(entry.getValue(), makeFabricCoefficients(entry.getValue())));
+        }
+        Set<String> loaded = new TreeSet<>(patterns.keySet());
+        for (String blockType : listAvailableBlocks()) {
+            if (!loaded.contains(blockType) && readIntoCache(blockType)) {
+                loaded.add(blockType);
+            }
+        }
+        return loaded;
+    }
+
+    // EFFECTS: returns the patterns of every pattern file in packed form, by block type, from the pattern pack if it
+    //          is up to date, and otherwise from the pattern files, remaking the pack if every one could be read
+    private static Map<String, Long> loadPatternFiles() {
+        Map<String, String> sources = getAvailableBlockMap();
+        Map<String, Long> patterns = PatternPack.read(patternPackFile, sources);
+        if (patterns == null) {
+            patterns = readAllPatterns();
+            if (patterns.size() == sources.size()) {
+                try {
+                    PatternPack.write(patternPackFile, sources, patterns);
+                } catch (IOException e) {
+                    // the pack only speeds up the next start; the patterns have been read
+                }
+            }
+        }
+        return patterns;
+    }
+
+    // EFFECTS: reads every pattern file in parallel, and returns the patterns that could be read in packed form, by
+    //          block type
+    private static Map<String, Long> readAllPatterns() {
+        Map<String, Long> patterns = new ConcurrentHashMap<>();
+        getAvailableBlockMap().keySet().parallelStream().forEach(blockType -> {
+            try {
+                patterns.put(blockType, readPackedPattern(blockType));
+            } catch (BlockUnavailableException | RuntimeException e) {
+                // left out of the library, so one bad pattern file cannot stop the rest from loading
+            }
+        });
+        return patterns;
+    }
+
+    // EFFECTS: starts watching the pattern folder on a background thread, reloading each pattern file as soon as it
+    //          is added, changed or removed (see reloadPatternFiles); returns the watcher, which stops once closed
+    //          throws IOException if the pattern folder cannot be watched
+    public static PatternFolderWatcher watchPatternFolder() throws IOException {
+        return new PatternFolderWatcher(new File(patternFileFolder), BlockMap::reloadPatternFiles);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: brings the block map up to date with the pattern files with given names in the pattern folder, which
+    //          may have been added, changed or removed, then tells observers which block types changed; each of
+    //          those block types has its cached pattern dropped and, if its file is still there, read again, and
+    //          every cached variant is dropped, to be made again from the new patterns when next asked for
+    //          if fileNames is null, any pattern file may have changed, and all of them are checked
+    //          the block library is loaded first (see warmUp), if it has not been already
+    public static void reloadPatternFiles(Set<String> fileNames) {
+        warmUp().join();
+        Set<String> changed = new TreeSet<>();
+        for (String fileName : fileNames == null ? listPatternFileNames() : fileNames) {
+            if (isPatternFile(fileName)) {
+                String blockType = reloadPatternFile(fileName);
+                changed.add(blockType);
+                if (!blockType.startsWith(reversedPrefix)) {
+                    changed.add(reversedPrefix + blockType);
+                }
+            }
+        }
+        patternCache.keySet().removeIf(blockType -> !AvailableBlocks.BLOCK_MAP.containsKey(blockType));
+        if (!changed.isEmpty()) {
+            for (BlockMapObserver observer : observers) {
+                observer.blockPatternsChanged(Collections.unmodifiableSet(changed));
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: brings the block map up to date with the pattern file with given name, dropping its block's cached
+    //          pattern and reading it again from whichever of the block's pattern files is there; returns the block
+    //          type of the file
+    private static String reloadPatternFile(String fileName) {
+        String name = patternFileFolder + fileName.substring(0, fileName.lastIndexOf('.'));
+        String blockType = formatBlockName(fileName);
+        patternCache.remove(blockType);
+        if (new File(name + textPatternFileType).isFile()) {
+            AvailableBlocks.BLOCK_MAP.put(blockType, name + textPatternFileType);
+            readIntoCache(blockType);
+        } else if (new File(name + patternFileType).isFile()) {
+            AvailableBlocks.BLOCK_MAP.put(blockType, name + patternFileType);
+            readIntoCache(blockType);
+        } else {
+            AvailableBlocks.BLOCK_MAP.remove(blockType);
+        }
+        return blockType;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the pattern for the given blockType into the pattern cache, and returns true if it could be read
+    private static boolean readIntoCache(String blockType) {
+        try {
+            getPackedPattern(blockType);
+            return true;
+        } catch (BlockUnavailableException e) {
+            // the file may still be being written; it is read again when it next changes, or when next asked for
+            return false;
+        }
+    }
+
+    // EFFECTS: returns the names of all files in the pattern folder, and of all pattern files in the block map
+    private static Set<String> listPatternFileNames() {
+        Set<String> fileNames = new TreeSet<>();
+        for (String file : getBlockFileNames(patternFileFolder)) {
+            fileNames.add(new File(file).getName());
+        }
+        for (String file : AvailableBlocks.BLOCK_MAP.values()) {
+            fileNames.add(new File(file).getName());
+        }
+        return fileNames;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds given observer, which will be told about every later change to the block patterns
+    public static void addObserver(BlockMapObserver observer) {
+        observers.add(observer);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes given observer, if it was observing the block map
+    public static void removeObserver(BlockMapObserver observer) {
+        observers.remove(observer);
     }
 
+    // MODIFIES: this
     // EFFECTS: returns the list of patches in the pattern for the given blockType
+    //          the list is an unmodifiable view of the cached pattern, made of Patch objects shared by every block
     //          throws BlockUnavailableException if desired block doesn't exist or cannot be read from file
     public static List<Patch> getBlockPatchPattern(String blockType) throws BlockUnavailableException {
+        return PackedBlock.decode(getPackedPattern(blockType));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the pattern for the given blockType in packed form (see PackedBlock)
+    //          pattern file is only read the first time a block type is requested; the parsed pattern is cached
+    //          the cache is safe to use from several threads at once, and is never locked while a file is read; if
+    //          two threads ask for a new block type at the same time, both may read it, but only one copy is kept
+    //          throws BlockUnavailableException if desired block doesn't exist or cannot be read from file
+    public static long getPackedPattern(String blockType) throws BlockUnavailableException {
+        return getCachedPattern(blockType).pattern;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the fabric coefficients {a, b, c} of given fabric for the given blockType, such that the fabric
+    //          needed (in square inches) for one block is a * patchSize^2 + b * patchSize + c
+    //          coefficients are worked out once, when the pattern is first read
+    //          throws BlockUnavailableException if desired block doesn't exist or cannot be read from file
+    public static double[] getFabricCoefficients(String blockType, Fabric fabric)
+            throws BlockUnavailableException {
+        return getCachedPattern(blockType).coefficients[fabric.ordinal()].clone();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the cached pattern for given blockType, reading it from file into the cache if needed
+    //          throws BlockUnavailableException if desired block doesn't exist or cannot be read from file
+    private static CachedPattern getCachedPattern(String blockType) throws BlockUnavailableException {
+        CachedPattern cached = blockType == null ? null : patternCache.get(blockType);
+        if (cached != null) {
+            patternCacheHits.incrementAndGet();
+            return cached;
+        }
+        patternCacheMisses.incrementAndGet();
+        long pattern = readPackedPattern(blockType);
+        cached = new CachedPattern(pattern, makeFabricCoefficients(pattern));
+        CachedPattern earlier = patternCache.putIfAbsent(blockType, cached);
+        return earlier == null ? cached : earlier;
+    }
+
+    // EFFECTS: returns the fabric coefficients of every fabric for given packed pattern, indexed by Fabric.ordinal()
+    private static double[][] makeFabricCoefficients(long pattern) {
+        double[][] coefficients = new double[Fabric.values().length][];
+        for (Fabric fabric : Fabric.values()) {
+            coefficients[fabric.ordinal()] = PackedBlock.fabricCoefficients(pattern, fabric);
+        }
+        return coefficients;
+    }
+
+    // EFFECTS: reads the pattern for the given blockType from file, or makes it if blockType names a variant of another
+    //          block, and returns it in packed form
+    //          throws BlockUnavailableException if desired block doesn't exist or cannot be read from file
+    private static long readPackedPattern(String blockType) throws BlockUnavailableException {
+        String patternFile = blockType == null ? null : getAvailableBlockMap().get(blockType);
+        if (patternFile == null) {
+            return makeVariant(blockType);
+        }
         try {
-            File patternFile = new File(blockMap.get(blockType));
-            return Reader.readPatchPattern(patternFile);
-        } catch (NullPointerException | IOException e) {
+            return PackedBlock.encode(Reader.readPatchPattern(new File(patternFile)));
+        } catch (JsonParseException | NullPointerException | IllegalArgumentException | IOException e) {
             throw new BlockUnavailableException();
         }
     }
 
-    // EFFECTS: returns block map
+    // EFFECTS: returns the pattern of the variant named by given blockType in packed form, made from the pattern of
+    //          the block it is a variant of, which is cached in turn
+    //          throws BlockUnavailableException if blockType does not name a variant of an available block, names
+    //          the reverse of a block whose name already starts with the reversed prefix (as "rev rev shoo fly"
+    //          does), or names a block whose patches do not make a square grid and so cannot be turned or mirrored
+    private static long makeVariant(String blockType) throws BlockUnavailableException {
+        if (blockType == null) {
+            throw new BlockUnavailableException();
+        }
+        try {
+            for (int quarterTurns = 1; quarterTurns < 4; quarterTurns++) {
+                String suffix = rotatedSuffix + quarterTurns * 90;
+                if (blockType.endsWith(suffix)) {
+                    return PackedBlock.rotate(getPackedPattern(stripSuffix(blockType, suffix)), quarterTurns);
+                }
+            }
+            if (blockType.endsWith(mirroredSuffix)) {
+                return PackedBlock.mirror(getPackedPattern(stripSuffix(blockType, mirroredSuffix)));
+            } else if (blockType.startsWith(reversedPrefix)
+                    && !blockType.startsWith(reversedPrefix, reversedPrefix.length())) {
+                return PackedBlock.swapFabrics(getPackedPattern(blockType.substring(reversedPrefix.length())));
+            }
+        } catch (IllegalArgumentException e) {
+            // not a square block
+        }
+        throw new BlockUnavailableException();
+    }
+
+    // EFFECTS: returns given blockType without given suffix
+    private static String stripSuffix(String blockType, String suffix) {
+        return blockType.substring(0, blockType.length() - suffix.length());
+    }
+
+    // EFFECTS: returns the number of pattern requests answered from the pattern cache
+    public static int getPatternCacheHits() {
+        return patternCacheHits.get();
+    }
+
+    // EFFECTS: returns the number of pattern requests that had to read the pattern from file, or make a variant
+    public static int getPatternCacheMisses() {
+        return patternCacheMisses.get();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: empties the pattern cache and resets its hit and miss counts; the next warmUp() starts over
+    public static synchronized void clearPatternCache() {
+        patternCache.clear();
+        patternCacheHits.set(0);
+        patternCacheMisses.set(0);
+        warmUp = null;
+    }
+
+    // EFFECTS: returns an unmodifiable view of the block map, which follows any changes to the pattern folder
     public static Map<String, String> getAvailableBlockMap() {
-        return blockMap;
+        return AvailableBlocks.BLOCK_MAP_VIEW;
     }
 
-    // EFFECTS: returns a set of all available blocks
+    // EFFECTS: returns a set of all available blocks, in alphabetical order: the block of each pattern file, and the
+    //          reversed variant of each block that is not a reversed variant itself
     public static Set<String> listAvailableBlocks() {
-        return blockMap.keySet();
+        Set<String> blocks = new TreeSet<>();
+        for (String blockType : getAvailableBlockMap().keySet()) {
+            blocks.add(blockType);
+            if (!blockType.startsWith(reversedPrefix)) {
+                blocks.add(reversedPrefix + blockType);
+            }
+        }
+        return blocks;
     }
 
     // EFFECTS: helper method to return a current list of file names in the block patterns folder
@@ -69,9 +376,34 @@ public class BlockMap {
 
     // EFFECTS: helper method to format block file names as strings that can be used throughout the program
     private static String formatBlockName(String fileName) {
-        int startIndex = patternFileFolder.length();
-        int nameStopIndex = fileName.length() - patternFileType.length();
-        return fileName.substring(startIndex, nameStopIndex).replace("-", " ");
+        String name = new File(fileName).getName();
+        return name.substring(0, name.lastIndexOf('.')).replace("-", " ");
+    }
+
+    // EFFECTS: returns true if the file with given name is a pattern file, in JSON or pattern notation
+    private static boolean isPatternFile(String fileName) {
+        return fileName.endsWith(patternFileType) || fileName.endsWith(textPatternFileType);
+    }
+
+    /*
+    Holds the block map, which is made when it is first used rather than when BlockMap is loaded
+     */
+    private static class AvailableBlocks {
+        private static final Map<String, String> BLOCK_MAP = makeAvailableBlockMap();
+        private static final Map<String, String> BLOCK_MAP_VIEW = Collections.unmodifiableMap(BLOCK_MAP);
+    }
+
+    /*
+    Holds a parsed pattern with the fabric coefficients of every fabric worked out from it
+     */
+    private static class CachedPattern {
+        private final long pattern;
+        private final double[][] coefficients;
+
+        private CachedPattern(long pattern, double[][] coefficients) {
+            this.pattern = pattern;
+            this.coefficients = coefficients;
+        }
     }
 
 }
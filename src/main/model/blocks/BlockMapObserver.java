@@ -0,0 +1,15 @@
+package model.blocks;
+
+import java.util.Set;
+
+/*
+Specifies an observer that is told when block patterns in the block map are added, changed or removed
+ */
+
+public interface BlockMapObserver {
+
+    // EFFECTS: responds to the patterns of given block types having been added, changed or removed; a block type that
+    //          is no longer in BlockMap.listAvailableBlocks() was removed
+    void blockPatternsChanged(Set<String> blockTypes);
+
+}
@@ -0,0 +1,292 @@
+package model.blocks;
+
+import model.patches.Fabric;
+import model.patches.HalfSquare;
+import model.patches.HalfSquareTriangle;
+import model.patches.Patch;
+import model.patches.PatchType;
+import model.patches.Square;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/*
+Encodes the patches of a block into a single long, and does block calculations directly on that encoding
+Each patch takes 6 bits, starting from the lowest bits for the first (top left) patch:
+ - bits 0-1: patch type (PatchType.ordinal(), or NO_PATCH)
+ - bits 2-3: rotation, in quarter turns
+ - bits 4-5: fabrics in the patch, one bit per Fabric.ordinal()
+Calculations look up each 6-bit patch code in small tables, so they never create objects; decoding hands back the
+same shared Patch object for every patch with the same code
+Blocks can also be transformed directly on the encoding: fabrics swapped, turned a quarter turn clockwise, or mirrored
+left to right; patches are moved around the block's square grid, and each patch code is looked up in a small table
+of the code of the same patch transformed
+ */
+
+public final class PackedBlock {
+
+    public static final int MAX_PATCHES = Long.SIZE / 6;
+
+    private static final int BITS_PER_PATCH = 6;
+    private static final int CODE_MASK = (1 << BITS_PER_PATCH) - 1;
+    private static final int NO_PATCH = 3;
+    private static final int NUM_CODES = 1 << BITS_PER_PATCH;
+    private static final int BITS_PER_COUNT = 8;
+    private static final PatchType[] PATCH_TYPES = PatchType.values();
+    private static final Fabric[] FABRICS = Fabric.values();
+
+    // shared patch for each code, or null if the code does not describe a patch
+    private static final Patch[] PATCHES = makePatchTable();
+    // for each code: 1 shifted to the count position of the patch's type (0 if there is no patch), so that adding
+    // up the entries for every patch in a block counts the patches of every type at once
+    private static final int[] TYPE_TALLY = makeTallyTable(null);
+    // as TYPE_TALLY, but only counting patches that contain the fabric
+    private static final int[][] FABRIC_TALLY = makeFabricTallyTable();
+    // for each code: the code of the same patch with fabrics swapped, turned a quarter turn clockwise, or mirrored
+    // left to right; codes that do not describe a patch are left as they are
+    private static final int SWAP_FABRICS = 0;
+    private static final int ROTATE = 1;
+    private static final int MIRROR = 2;
+    private static final int[][] TRANSFORMED = {
+            makeTransformTable(SWAP_FABRICS), makeTransformTable(ROTATE), makeTransformTable(MIRROR)};
+
+    private PackedBlock() { }
+
+    // REQUIRES: patches.size() <= MAX_PATCHES
+    // EFFECTS: returns the packed encoding of given patches
+    //          throws IllegalArgumentException if there are too many patches or a patch cannot be encoded
+    public static long encode(List<Patch> patches) {
+        if (patches.size() > MAX_PATCHES) {
+            throw new IllegalArgumentException("too many patches to pack: " + patches.size());
+        }
+        long packed = 0;
+        for (int i = 0; i < MAX_PATCHES; i++) {
+            int code = i < patches.size() ? encodePatch(patches.get(i)) : NO_PATCH;
+            packed |= ((long) code) << (i * BITS_PER_PATCH);
+        }
+        return packed;
+    }
+
+    // EFFECTS: returns the 6-bit code for given patch
+    //          throws IllegalArgumentException if the patch cannot be encoded
+    private static int encodePatch(Patch patch) {
+        int fabrics = 0;
+        for (Fabric fabric : FABRICS) {
+            if (patch.containsFabric(fabric)) {
+                fabrics |= 1 << fabric.ordinal();
+            }
+        }
+        int code = makeCode(patch.getPatchType(), patch.getRotation() / 90, fabrics);
+        if (patch.getRotation() % 90 != 0 || PATCHES[code] == null) {
+            throw new IllegalArgumentException("patch cannot be packed: " + patch.getType());
+        }
+        return code;
+    }
+
+    // EFFECTS: returns an unmodifiable view of the patches in given packed block; every patch is a shared patch
+    public static List<Patch> decode(long packed) {
+        int numPatches = countPatches(packed);
+        return new AbstractList<Patch>() {
+            @Override
+            public Patch get(int index) {
+                if (index < 0 || index >= numPatches) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + numPatches);
+                }
+                return PATCHES[codeAt(packed, index)];
+            }
+
+            @Override
+            public int size() {
+                return numPatches;
+            }
+        };
+    }
+
+    // EFFECTS: returns the number of patches in given packed block
+    public static int countPatches(long packed) {
+        int total = 0;
+        int tally = tally(packed, TYPE_TALLY);
+        for (PatchType type : PATCH_TYPES) {
+            total += countOf(tally, type);
+        }
+        return total;
+    }
+
+    // EFFECTS: returns the number of patches of given type in given packed block
+    public static int countPatches(long packed, PatchType patchType) {
+        return countOf(tally(packed, TYPE_TALLY), patchType);
+    }
+
+    // EFFECTS: returns the number of patches of given type containing given fabric in given packed block
+    public static int countPatches(long packed, Fabric fabric, PatchType patchType) {
+        return countOf(tally(packed, FABRIC_TALLY[fabric.ordinal()]), patchType);
+    }
+
+    // REQUIRES: patchSize >= 0
+    // EFFECTS: returns the fabric (in square inches) needed of given fabric to make given packed block, where each
+    //          patch has given size
+    public static double calculateFabric(long packed, Fabric fabric, double patchSize) {
+        int tally = tally(packed, FABRIC_TALLY[fabric.ordinal()]);
+        double total = 0;
+        for (PatchType type : PATCH_TYPES) {
+            total += countOf(tally, type) * type.calculatePieceFabric(patchSize);
+        }
+        return total;
+    }
+
+    // EFFECTS: returns the fabric coefficients {a, b, c} of given packed block and fabric, such that the fabric needed
+    //          for the block is a * patchSize^2 + b * patchSize + c (see PatchType.getFabricCoefficients)
+    public static double[] fabricCoefficients(long packed, Fabric fabric) {
+        int tally = tally(packed, FABRIC_TALLY[fabric.ordinal()]);
+        double[] coefficients = new double[3];
+        for (PatchType type : PATCH_TYPES) {
+            double[] pieceCoefficients = type.getFabricCoefficients();
+            for (int i = 0; i < coefficients.length; i++) {
+                coefficients[i] += countOf(tally, type) * pieceCoefficients[i];
+            }
+        }
+        return coefficients;
+    }
+
+    // EFFECTS: returns given packed block with fabrics A and B swapped in every patch
+    public static long swapFabrics(long packed) {
+        return moveCodes(packed, TRANSFORMED[SWAP_FABRICS], 0, false);
+    }
+
+    // EFFECTS: returns given packed block turned given number of quarter turns clockwise
+    //          throws IllegalArgumentException if the patches of the block do not make a square grid
+    public static long rotate(long packed, int quarterTurns) {
+        int side = countSide(packed);
+        for (int turn = 0; turn < (quarterTurns & 3); turn++) {
+            packed = moveCodes(packed, TRANSFORMED[ROTATE], side, false);
+        }
+        return packed;
+    }
+
+    // EFFECTS: returns given packed block mirrored left to right
+    //          throws IllegalArgumentException if the patches of the block do not make a square grid
+    public static long mirror(long packed) {
+        return moveCodes(packed, TRANSFORMED[MIRROR], countSide(packed), true);
+    }
+
+    // EFFECTS: returns the number of patches along each side of given packed block's square grid
+    //          throws IllegalArgumentException if the patches of the block do not make a square grid
+    private static int countSide(long packed) {
+        int numPatches = countPatches(packed);
+        int side = (int) Math.round(Math.sqrt(numPatches));
+        if (side * side != numPatches) {
+            throw new IllegalArgumentException("patches do not make a square grid: " + numPatches);
+        }
+        return side;
+    }
+
+    // EFFECTS: returns given packed block with each patch code replaced by its entry in given table; if side > 0,
+    //          patches are also moved around the block's grid of given side, mirrored left to right if mirrored is
+    //          true, or else turned a quarter turn clockwise
+    private static long moveCodes(long packed, int[] table, int side, boolean mirrored) {
+        long moved = packed;
+        for (int i = 0; i < MAX_PATCHES; i++) {
+            int from = i;
+            if (i < side * side) {
+                int row = i / side;
+                int col = i % side;
+                from = mirrored ? row * side + (side - 1 - col) : (side - 1 - col) * side + row;
+            }
+            long code = table[codeAt(packed, from)];
+            moved = (moved & ~(((long) CODE_MASK) << (i * BITS_PER_PATCH))) | (code << (i * BITS_PER_PATCH));
+        }
+        return moved;
+    }
+
+    // EFFECTS: adds up the table entries for the code of every patch in given packed block
+    private static int tally(long packed, int[] table) {
+        int tally = 0;
+        for (int i = 0; i < MAX_PATCHES; i++) {
+            tally += table[codeAt(packed, i)];
+        }
+        return tally;
+    }
+
+    // EFFECTS: returns the count for given patch type from a tally
+    private static int countOf(int tally, PatchType patchType) {
+        return (tally >>> (patchType.ordinal() * BITS_PER_COUNT)) & ((1 << BITS_PER_COUNT) - 1);
+    }
+
+    // EFFECTS: returns the code of the patch at given index in given packed block
+    private static int codeAt(long packed, int index) {
+        return (int) (packed >>> (index * BITS_PER_PATCH)) & CODE_MASK;
+    }
+
+    // EFFECTS: returns the code for a patch with given type, number of quarter turns, and fabric bits
+    private static int makeCode(PatchType patchType, int quarterTurns, int fabrics) {
+        return patchType.ordinal() | ((quarterTurns & 3) << 2) | (fabrics << 4);
+    }
+
+    // EFFECTS: creates the shared patch for every code that describes a patch that can be made
+    private static Patch[] makePatchTable() {
+        Patch[] patches = new Patch[NUM_CODES];
+        int bothFabrics = (1 << Fabric.A.ordinal()) | (1 << Fabric.B.ordinal());
+        patches[makeCode(PatchType.SQUARE, 0, 1 << Fabric.A.ordinal())] = new Square(Fabric.A.getLabel());
+        patches[makeCode(PatchType.SQUARE, 0, 1 << Fabric.B.ordinal())] = new Square(Fabric.B.getLabel());
+        for (int quarterTurns = 0; quarterTurns < 4; quarterTurns++) {
+            patches[makeCode(PatchType.HALF_SQUARE, quarterTurns, bothFabrics)] = new HalfSquare(quarterTurns * 90);
+            patches[makeCode(PatchType.HALF_TRIANGLE, quarterTurns, bothFabrics)] =
+                    new HalfSquareTriangle(quarterTurns * 90);
+        }
+        return patches;
+    }
+
+    // EFFECTS: creates the table of the code of each patch transformed by given transform (SWAP_FABRICS, ROTATE or
+    //          MIRROR)
+    private static int[] makeTransformTable(int transform) {
+        int[] table = new int[NUM_CODES];
+        for (int code = 0; code < NUM_CODES; code++) {
+            table[code] = PATCHES[code] == null ? code : transformCode(code, transform);
+        }
+        return table;
+    }
+
+    // REQUIRES: code describes a patch
+    // EFFECTS: returns the code of the patch with given code transformed by given transform; a square only changes
+    //          when its fabric is swapped, and swapping the fabrics of a half-square or half-square triangle patch is
+    //          the same as turning it half a turn
+    private static int transformCode(int code, int transform) {
+        PatchType patchType = PATCHES[code].getPatchType();
+        int quarterTurns = (code >>> 2) & 3;
+        int fabrics = code >>> 4;
+        if (patchType == PatchType.SQUARE) {
+            int bothFabrics = (1 << Fabric.A.ordinal()) | (1 << Fabric.B.ordinal());
+            return transform == SWAP_FABRICS ? makeCode(patchType, 0, fabrics ^ bothFabrics) : code;
+        } else if (transform == SWAP_FABRICS) {
+            return makeCode(patchType, quarterTurns + 2, fabrics);
+        } else if (transform == ROTATE) {
+            return makeCode(patchType, quarterTurns + 1, fabrics);
+        }
+        // mirrored left to right, a half-square's halves swap sides, and a triangle's diagonal flips
+        int mirrorTurns = patchType == PatchType.HALF_SQUARE ? 2 : 1;
+        return makeCode(patchType, mirrorTurns - quarterTurns, fabrics);
+    }
+
+    // EFFECTS: creates the tally table counting the patches of each type that contain given fabric (or every patch,
+    //          if fabric is null)
+    private static int[] makeTallyTable(Fabric fabric) {
+        int[] table = new int[NUM_CODES];
+        for (int code = 0; code < NUM_CODES; code++) {
+            Patch patch = PATCHES[code];
+            if (patch != null && (fabric == null || patch.containsFabric(fabric))) {
+                table[code] = 1 << (patch.getPatchType().ordinal() * BITS_PER_COUNT);
+            }
+        }
+        return table;
+    }
+
+    // EFFECTS: creates a tally table for each fabric
+    private static int[][] makeFabricTallyTable() {
+        int[][] tables = new int[FABRICS.length][];
+        for (Fabric fabric : FABRICS) {
+            tables[fabric.ordinal()] = makeTallyTable(fabric);
+        }
+        return tables;
+    }
+
+}
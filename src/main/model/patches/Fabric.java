@@ -0,0 +1,34 @@
+package model.patches;
+
+/*
+Represents the fabrics a patch can be made of
+Fabrics are hard-coded to "A" and "B"; the label is the name used for the fabric everywhere else in Patchwork
+ */
+
+public enum Fabric {
+
+    A("A"),
+    B("B");
+
+    private final String label;
+
+    Fabric(String label) {
+        this.label = label;
+    }
+
+    // getter
+    public String getLabel() {
+        return label;
+    }
+
+    // EFFECTS: returns the fabric with the given label, or null if there is none
+    public static Fabric fromLabel(String label) {
+        for (Fabric fabric : values()) {
+            if (fabric.label.equals(label)) {
+                return fabric;
+            }
+        }
+        return null;
+    }
+
+}
@@ -28,6 +28,12 @@ public class HalfSquare extends Patch {
     // EFFECTS: calculates the total fabric (in square inches) needed to make one rectangle of the patch of given size
     @Override
     protected double calculateFabric(double patchSize) {
+        return calculatePieceFabric(patchSize);
+    }
+
+    // REQUIRES: patchSize >= 0
+    // EFFECTS: calculates the total fabric (in square inches) needed to make one rectangle of a patch of given size
+    static double calculatePieceFabric(double patchSize) {
         double unfinishedHeightPerRectangle = patchSize + (Quilt.SEAM_ALLOWANCE * 2);
         double unfinishedWidthPerRectangle = (patchSize / 2) + (Quilt.SEAM_ALLOWANCE * 2);
         return unfinishedHeightPerRectangle * unfinishedWidthPerRectangle;
@@ -39,4 +45,10 @@ public class HalfSquare extends Patch {
         return Patch.HALF_SQUARE;
     }
 
+    @Override
+    // EFFECTS: returns the type of the patch
+    public PatchType getPatchType() {
+        return PatchType.HALF_SQUARE;
+    }
+
 }
@@ -28,6 +28,12 @@ public class HalfSquareTriangle extends Patch {
     // REQUIRES: patchSize >= 0
     // EFFECTS: calculates the total fabric (in square inches) needed to make one triangle of the patch
     protected double calculateFabric(double patchSize) {
+        return calculatePieceFabric(patchSize);
+    }
+
+    // REQUIRES: patchSize >= 0
+    // EFFECTS: calculates the total fabric (in square inches) needed to make one triangle of a patch of given size
+    static double calculatePieceFabric(double patchSize) {
         double unfinishedSideLength = patchSize + (Quilt.SEAM_ALLOWANCE * 2);
         double startingSquareSideLength = unfinishedSideLength + 1;
         return startingSquareSideLength * startingSquareSideLength / 2;
@@ -38,4 +44,10 @@ public class HalfSquareTriangle extends Patch {
     public String getType() {
         return Patch.HALF_TRIANGLE;
     }
+
+    @Override
+    // EFFECTS: returns the type of the patch
+    public PatchType getPatchType() {
+        return PatchType.HALF_TRIANGLE;
+    }
 }
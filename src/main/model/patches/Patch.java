@@ -1,11 +1,13 @@
 package model.patches;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /*
 Represents one patch of a quilt block, with an orientation, a finished size, and list of up to two fabrics
 Fabrics are initially hard-coded to "A" and "B"; this will be augmented in future versions
+Patches cannot be changed once created, so a single patch can safely be shared by many blocks
  */
 
 public abstract class Patch {
@@ -37,7 +39,7 @@ public abstract class Patch {
     }
 
     public List<String> getFabrics() {
-        return fabrics;
+        return Collections.unmodifiableList(fabrics);
     }
 
     // EFFECTS: returns true if patch contains given fabric, false otherwise
@@ -45,6 +47,11 @@ public abstract class Patch {
         return fabrics.contains(fabric);
     }
 
+    // EFFECTS: returns true if patch contains given fabric, false otherwise
+    public boolean containsFabric(Fabric fabric) {
+        return fabrics.contains(fabric.getLabel());
+    }
+
     // REQUIRES: patchzSize >= 0
     // EFFECTS: returns total fabric (in square inches) needed of given fabric to make the patch of given size
     public double calculateFabric(String fabric, double patchSize) {
@@ -62,4 +69,7 @@ public abstract class Patch {
     // subclass-specific type information
     public abstract String getType();
 
+    // subclass-specific type information, as a typed key
+    public abstract PatchType getPatchType();
+
 }
@@ -0,0 +1,76 @@
+package model.patches;
+
+/*
+Represents the kinds of patches a block can be made of
+Each patch type knows how much fabric one of its pieces needs, so totals can be calculated from patch counts alone
+The fabric for one piece is a quadratic in the patch size (a * size^2 + b * size + c), so any total made by adding
+up pieces is also a quadratic, and can be worked out for any block size from just three coefficients
+ */
+
+public enum PatchType {
+
+    SQUARE(Patch.SQUARE),
+    HALF_SQUARE(Patch.HALF_SQUARE),
+    HALF_TRIANGLE(Patch.HALF_TRIANGLE);
+
+    private final String typeName;
+    private final double[] fabricCoefficients;
+
+    // EFFECTS: creates a patch type with given type name, and finds its fabric coefficients from the piece fabric at
+    //          sizes 0, 1 and 2
+    PatchType(String typeName) {
+        this.typeName = typeName;
+        double atZero = calculatePieceFabric(typeName, 0);
+        double atOne = calculatePieceFabric(typeName, 1);
+        double atTwo = calculatePieceFabric(typeName, 2);
+        double squared = (atTwo - 2 * atOne + atZero) / 2;
+        fabricCoefficients = new double[]{squared, atOne - atZero - squared, atZero};
+    }
+
+    // getter
+    public String getTypeName() {
+        return typeName;
+    }
+
+    // EFFECTS: returns the patch type with the given type name (e.g. Patch.SQUARE), or null if there is none
+    public static PatchType fromTypeName(String typeName) {
+        for (PatchType patchType : values()) {
+            if (patchType.typeName.equals(typeName)) {
+                return patchType;
+            }
+        }
+        return null;
+    }
+
+    // REQUIRES: patchSize >= 0
+    // EFFECTS: returns the fabric (in square inches) needed for one fabric piece of a patch of this type and given size
+    public double calculatePieceFabric(double patchSize) {
+        return calculatePieceFabric(typeName, patchSize);
+    }
+
+    // EFFECTS: returns the coefficients {a, b, c} such that calculatePieceFabric(size) is a * size^2 + b * size + c
+    public double[] getFabricCoefficients() {
+        return fabricCoefficients.clone();
+    }
+
+    // REQUIRES: patchSize >= 0
+    // EFFECTS: returns the fabric (in square inches) needed for one fabric piece of a patch with given type name and
+    //          size; goes by type name rather than by constant, so it can be used while the constants are being made
+    private static double calculatePieceFabric(String typeName, double patchSize) {
+        switch (typeName) {
+            case Patch.HALF_SQUARE:
+                return HalfSquare.calculatePieceFabric(patchSize);
+            case Patch.HALF_TRIANGLE:
+                return HalfSquareTriangle.calculatePieceFabric(patchSize);
+            default:
+                return Square.calculatePieceFabric(patchSize);
+        }
+    }
+
+    // REQUIRES: coefficients has length 3, patchSize >= 0
+    // EFFECTS: returns the fabric (in square inches) given by fabric coefficients {a, b, c} for given patch size
+    public static double evaluateFabricCoefficients(double[] coefficients, double patchSize) {
+        return (coefficients[0] * patchSize + coefficients[1]) * patchSize + coefficients[2];
+    }
+
+}
@@ -34,6 +34,12 @@ public class Square extends Patch {
     // REQUIRES: patchzSize >= 0
     // EFFECTS: calculates the total fabric (in square inches) needed to make the patch of given size
     protected double calculateFabric(double patchSize) {
+        return calculatePieceFabric(patchSize);
+    }
+
+    // REQUIRES: patchSize >= 0
+    // EFFECTS: calculates the total fabric (in square inches) needed to make a square patch of given size
+    static double calculatePieceFabric(double patchSize) {
         double unfinishedSideLength = patchSize + (Quilt.SEAM_ALLOWANCE * 2);
         return unfinishedSideLength * unfinishedSideLength;
     }
@@ -44,4 +50,10 @@ public class Square extends Patch {
         return Patch.SQUARE;
     }
 
+    @Override
+    // EFFECTS: returns the type of the patch
+    public PatchType getPatchType() {
+        return PatchType.SQUARE;
+    }
+
 }
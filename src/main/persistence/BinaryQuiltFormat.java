@@ -0,0 +1,177 @@
+package persistence;
+
+import model.Quilt;
+import model.blocks.Block;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Reads and writes quilts in Patchwork's binary quilt file format
+All numbers are big-endian; strings are an int byte length (-1 for null) followed by UTF-8 bytes
+ - header: the magic bytes "PWQB", an int format version, int numBlocksAcross, int numBlocksDown, double blockSize,
+   the two fabric colours as strings, then an int count of block types followed by each block type as a string
+ - slots: one short per slot, in slot order, holding the slot's index into the block types (EMPTY_SLOT if empty)
+The slots are a fixed-size array straight after the header, so the slot for any position can be read directly from a
+memory-mapped file without reading the slots before it
+ */
+
+final class BinaryQuiltFormat {
+
+    static final byte[] MAGIC = "PWQB".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final short EMPTY_SLOT = -1;
+
+    private static final int WRITE_CHUNK = 64 * 1024;
+
+    private BinaryQuiltFormat() { }
+
+    // EFFECTS: returns true if given file starts with the binary quilt file magic bytes
+    static boolean isBinaryQuiltFile(File file) throws IOException {
+        byte[] start = new byte[MAGIC.length];
+        try (InputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < start.length) {
+                int count = in.read(start, read, start.length - read);
+                if (count < 0) {
+                    return false;
+                }
+                read += count;
+            }
+        }
+        return Arrays.equals(start, MAGIC);
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes given quilt to file in the binary quilt file format
+    //          throws IOException if the file cannot be written or the quilt uses more block types than fit in a slot
+    static void write(Quilt quilt, File file) throws IOException {
+        Map<String, Short> dictionary = new HashMap<>();
+        for (String blockType : quilt.getBlockHistogram().keySet()) {
+            if (dictionary.size() > Short.MAX_VALUE) {
+                throw new IOException("too many block types for a binary quilt file");
+            }
+            dictionary.put(blockType, (short) dictionary.size());
+        }
+        try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+            writeFully(channel, ByteBuffer.wrap(makeHeader(quilt, dictionary)));
+            ByteBuffer slots = ByteBuffer.allocate(WRITE_CHUNK);
+            for (Block block : quilt.getBlocks()) {
+                if (!slots.hasRemaining()) {
+                    slots.flip();
+                    writeFully(channel, slots);
+                    slots.clear();
+                }
+                slots.putShort(block == null ? EMPTY_SLOT : dictionary.get(block.getBlockType()));
+            }
+            slots.flip();
+            writeFully(channel, slots);
+        }
+    }
+
+    // EFFECTS: returns the header bytes for given quilt, with its block types in dictionary order
+    private static byte[] makeHeader(Quilt quilt, Map<String, Short> dictionary) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(quilt.getNumBlocksAcross());
+        out.writeInt(quilt.getNumBlocksDown());
+        out.writeDouble(quilt.getBlockSize());
+        writeString(out, quilt.getFabricColours()[0]);
+        writeString(out, quilt.getFabricColours()[1]);
+        String[] blockTypes = new String[dictionary.size()];
+        for (Map.Entry<String, Short> entry : dictionary.entrySet()) {
+            blockTypes[entry.getValue()] = entry.getKey();
+        }
+        out.writeInt(blockTypes.length);
+        for (String blockType : blockTypes) {
+            writeString(out, blockType);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // EFFECTS: writes given string, which may be null, as an int byte length and UTF-8 bytes
+    private static void writeString(DataOutputStream out, String string) throws IOException {
+        if (string == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    // EFFECTS: writes all remaining bytes of buffer to channel
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // EFFECTS: memory-maps given file; the mapping stays valid after the file is closed, and the operating system
+    //          only reads the parts of the file that are used
+    static MappedByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = new FileInputStream(file).getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // EFFECTS: reads the header at the start of given buffer
+    //          throws IOException if the buffer does not hold a binary quilt file, or is too short for its slots
+    static QuiltHeader readHeader(ByteBuffer buffer) throws IOException {
+        ByteBuffer in = buffer.duplicate();
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.getInt() != VERSION) {
+                throw new IOException("not a binary quilt file");
+            }
+            int across = in.getInt();
+            int down = in.getInt();
+            double blockSize = in.getDouble();
+            String[] colours = {readString(in), readString(in)};
+            List<String> blockTypes = new ArrayList<>();
+            for (int numBlockTypes = in.getInt(); blockTypes.size() < numBlockTypes; ) {
+                blockTypes.add(readString(in));
+            }
+            if (across <= 0 || down <= 0 || in.remaining() < 2L * across * down) {
+                throw new IOException("binary quilt file is damaged");
+            }
+            return new QuiltHeader(across, down, blockSize, colours, blockTypes, in.position());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("binary quilt file is damaged", e);
+        }
+    }
+
+    // EFFECTS: reads a string written by writeString
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] utf8 = new byte[length];
+        in.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,96 @@
+package persistence;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.blocks.Block;
+import model.patches.Patch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Streams blocks to and from JSON without reflection
+Blocks only keep their patches in packed form, so they are written out with their full list of patches the same way
+Patchwork has always saved them, and packed again when read back in
+ */
+
+public class BlockTypeAdapter extends TypeAdapter<Block> {
+
+    private final PatchTypeAdapter patchAdapter;
+
+    // EFFECTS: creates a block adapter that reads and writes patches with given patch adapter
+    public BlockTypeAdapter(PatchTypeAdapter patchAdapter) {
+        this.patchAdapter = patchAdapter;
+    }
+
+    // EFFECTS: writes given block as JSON, or null if there is no block
+    @Override
+    public void write(JsonWriter out, Block block) throws IOException {
+        if (block == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("blockType").value(block.getBlockType());
+        out.name("patches").beginArray();
+        for (Patch patch : block.getPatches()) {
+            patchAdapter.write(out, patch);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    // EFFECTS: reads a block (or null) from JSON; fields may come in any order and unknown fields are skipped
+    //          throws JsonParseException if the JSON does not describe a valid block
+    @Override
+    public Block read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String blockType = null;
+        List<Patch> patches = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals("blockType")) {
+                blockType = in.nextString();
+            } else if (name.equals("patches")) {
+                patches = readPatches(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return makeBlock(blockType, patches);
+    }
+
+    // EFFECTS: returns a block of given type made of given patches
+    //          throws JsonParseException if either is missing or they do not make a valid block
+    private Block makeBlock(String blockType, List<Patch> patches) {
+        if (blockType == null || patches == null) {
+            throw new JsonParseException("not a valid block: missing block type or patches");
+        }
+        try {
+            return new Block(blockType, patches);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new JsonParseException("not a valid block", e);
+        }
+    }
+
+    // EFFECTS: reads a list of patches from JSON
+    private List<Patch> readPatches(JsonReader in) throws IOException {
+        List<Patch> patches = new ArrayList<>(Block.NUM_OF_PATCHES);
+        in.beginArray();
+        while (in.hasNext()) {
+            patches.add(patchAdapter.read(in));
+        }
+        in.endArray();
+        return patches;
+    }
+
+}
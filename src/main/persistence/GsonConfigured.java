@@ -1,53 +1,63 @@
 package persistence;
 
-import model.patches.*;
+import model.Quilt;
+import model.blocks.Block;
+import model.patches.Patch;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.typeadapters.RuntimeTypeAdapterFactory;
 
 
 /*
-A configured Gson object capable of deserializing JSON objects for this project.
+The configured Gson objects used to convert this project's objects to and from JSON
 Configurations to the standard Gson object include:
 - serializing null values
-- pretty printing JSON to file so that the files are human-readable
-- creating a RuntimeTypeAdapterFactory to recognize Patch subclasses
+- streaming quilts, quilt summaries, blocks and patches with hand-written type adapters, so no reflection is used
+  and Patch subclasses are recognized from their "gsonType" tag
+Gson objects are thread-safe, so a single compact Gson and a single pretty-printing Gson are shared by all callers;
+each is only built the first time it is needed
  */
 
-public class GsonConfigured {
+public final class GsonConfigured {
 
-    private Gson gson;
+    private GsonConfigured() { }
 
-    public GsonConfigured() {
-        this.gson = configureGson();
+    // EFFECTS: returns the shared Gson object, which writes compact JSON
+    public static Gson getGson() {
+        return CompactHolder.GSON;
     }
 
-    // getter
-    public Gson getGson() {
-        return gson;
+    // EFFECTS: returns the shared Gson object that pretty prints JSON, so that files are human-readable
+    public static Gson getPrettyGson() {
+        return PrettyHolder.GSON;
     }
 
-    // MODIFIES: this
-    // EFFECTS: configures the Gson object to serialize null values, pretty print JSON, and recognize Patch subclasses
-    private Gson configureGson() {
+    // EFFECTS: returns a Gson builder that serializes null values and converts quilts, blocks and patches
+    private static GsonBuilder configureGsonBuilder() {
+        PatchTypeAdapter patchAdapter = new PatchTypeAdapter();
+        BlockTypeAdapter blockAdapter = new BlockTypeAdapter(patchAdapter);
         GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.serializeNulls();
-        gsonBuilder.setPrettyPrinting();
-        gsonBuilder.registerTypeAdapterFactory(makePatchRuntimeTypeAdapterFactory());
-        return gsonBuilder.create();
+        gsonBuilder.registerTypeHierarchyAdapter(Patch.class, patchAdapter);
+        gsonBuilder.registerTypeAdapter(Block.class, blockAdapter);
+        QuiltSummaryTypeAdapter summaryAdapter = new QuiltSummaryTypeAdapter();
+        gsonBuilder.registerTypeAdapter(QuiltSummary.class, summaryAdapter);
+        gsonBuilder.registerTypeAdapter(Quilt.class, new QuiltTypeAdapter(blockAdapter, summaryAdapter));
+        return gsonBuilder;
     }
 
-    // EFFECTS: creates a RuntimeTypeAdapterFactory capable of recognizing Patch subclasses during serialization
-    //          and deserialization
-    // NOTE: code to created RuntimeTypeAdapterFactory adapted from Gson tutorial available at:
-    // https://futurestud.io/tutorials/how-to-deserialize-a-list-of-polymorphic-objects-with-gson
-    private RuntimeTypeAdapterFactory<Patch> makePatchRuntimeTypeAdapterFactory() {
-        RuntimeTypeAdapterFactory<Patch> patchAdapter = RuntimeTypeAdapterFactory.of(Patch.class, "gsonType");
-        patchAdapter.registerSubtype(Square.class, "SQ");
-        patchAdapter.registerSubtype(HalfSquare.class, "HS");
-        patchAdapter.registerSubtype(HalfSquareTriangle.class, "HT");
-        return patchAdapter;
+    /*
+    Holds the compact Gson object; the JVM builds it, once and thread-safely, the first time it is used
+     */
+    private static class CompactHolder {
+        private static final Gson GSON = configureGsonBuilder().create();
+    }
+
+    /*
+    Holds the pretty-printing Gson object; the JVM builds it, once and thread-safely, the first time it is used
+     */
+    private static class PrettyHolder {
+        private static final Gson GSON = configureGsonBuilder().setPrettyPrinting().create();
     }
 
 }
@@ -0,0 +1,108 @@
+package persistence;
+
+import exceptions.BlockUnavailableException;
+import exceptions.IllegalQuiltSizeException;
+import exceptions.SlotOutOfBoundsException;
+import model.Quilt;
+import model.blocks.Block;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/*
+Represents a quilt in a memory-mapped binary quilt file, whose slots are only read as they are asked for
+Opening a mapped quilt only reads its header, however large the quilt; a full Quilt can be made from it when the
+quilt needs to be changed or calculated on
+ */
+
+public final class MappedQuilt {
+
+    private final QuiltHeader header;
+    private final ByteBuffer slots;
+    private final Block[] blocks;
+
+    // EFFECTS: creates a view of the quilt in given mapped binary quilt file, with given header
+    MappedQuilt(QuiltHeader header, ByteBuffer file) {
+        this.header = header;
+        this.slots = file.duplicate();
+        this.blocks = new Block[header.getBlockTypes().size()];
+    }
+
+    // getter
+    public QuiltHeader getHeader() {
+        return header;
+    }
+
+    // REQUIRES: 0 <= slot < getHeader().getTotalBlocks()
+    // EFFECTS: returns the type of the block in given slot, or null if the slot is empty
+    //          throws IOException if the slot does not hold a valid index into the header's block types
+    public String getBlockType(int slot) throws IOException {
+        short index = readIndex(slot);
+        return index == BinaryQuiltFormat.EMPTY_SLOT ? null : header.getBlockTypes().get(index);
+    }
+
+    // REQUIRES: 0 <= slot < getHeader().getTotalBlocks()
+    // EFFECTS: returns the block in given slot, or null if the slot is empty; blocks of the same type are shared
+    //          throws IOException if the slot is not valid or its block type is not available
+    public Block getBlock(int slot) throws IOException {
+        short index = readIndex(slot);
+        if (index == BinaryQuiltFormat.EMPTY_SLOT) {
+            return null;
+        }
+        if (blocks[index] == null) {
+            try {
+                blocks[index] = new Block(header.getBlockTypes().get(index));
+            } catch (BlockUnavailableException e) {
+                throw new IOException("block type not available: " + header.getBlockTypes().get(index), e);
+            }
+        }
+        return blocks[index];
+    }
+
+    // EFFECTS: reads every slot and returns the quilt in the file
+    //          throws IOException if the file is damaged or uses a block type that is not available
+    public Quilt toQuilt() throws IOException {
+        try {
+            Quilt quilt = new Quilt(header.getNumBlocksAcross(), header.getNumBlocksDown(), header.getBlockSize());
+            for (int row = 0; row < header.getNumBlocksDown(); row++) {
+                fillRow(quilt, row);
+            }
+            quilt.setFabricColours(header.getFabricColours()[0], header.getFabricColours()[1]);
+            return quilt;
+        } catch (IllegalQuiltSizeException | SlotOutOfBoundsException | BlockUnavailableException e) {
+            throw new IOException("not a valid binary quilt file", e);
+        }
+    }
+
+    // MODIFIES: quilt
+    // EFFECTS: puts the blocks in given row of the file into the quilt; each run of the same block type along the
+    //          row is filled in with one change to the quilt
+    private void fillRow(Quilt quilt, int row) throws IOException, BlockUnavailableException,
+            SlotOutOfBoundsException {
+        int across = header.getNumBlocksAcross();
+        int col = 0;
+        while (col < across) {
+            short index = readIndex(row * across + col);
+            int runEnd = col + 1;
+            while (runEnd < across && readIndex(row * across + runEnd) == index) {
+                runEnd++;
+            }
+            if (index != BinaryQuiltFormat.EMPTY_SLOT) {
+                quilt.fillRegion(header.getBlockTypes().get(index), row, col, 1, runEnd - col);
+            }
+            col = runEnd;
+        }
+    }
+
+    // REQUIRES: 0 <= slot < getHeader().getTotalBlocks()
+    // EFFECTS: returns the block type index stored for given slot, or EMPTY_SLOT if it is empty
+    //          throws IOException if the index is not EMPTY_SLOT or an index into the header's block types
+    private short readIndex(int slot) throws IOException {
+        short index = slots.getShort(header.getSlotsOffset() + 2 * slot);
+        if (index != BinaryQuiltFormat.EMPTY_SLOT && (index < 0 || index >= blocks.length)) {
+            throw new IOException("binary quilt file is damaged at slot " + slot);
+        }
+        return index;
+    }
+
+}
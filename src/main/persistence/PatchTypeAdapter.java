@@ -0,0 +1,114 @@
+package persistence;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.patches.HalfSquare;
+import model.patches.HalfSquareTriangle;
+import model.patches.Patch;
+import model.patches.PatchType;
+import model.patches.Square;
+
+import java.io.IOException;
+
+/*
+Streams patches to and from JSON without reflection
+Each patch is written with a "gsonType" tag (SQ, HS or HT) ahead of its rotation and fabrics, the same layout the
+block pattern files and earlier versions of Patchwork use, so those files can still be read
+ */
+
+public class PatchTypeAdapter extends TypeAdapter<Patch> {
+
+    public static final String TYPE_FIELD = "gsonType";
+
+    // EFFECTS: writes given patch as JSON
+    @Override
+    public void write(JsonWriter out, Patch patch) throws IOException {
+        if (patch == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name(TYPE_FIELD).value(tagOf(patch.getPatchType()));
+        out.name("rotation").value(patch.getRotation());
+        out.name("fabrics").beginArray();
+        for (String fabric : patch.getFabrics()) {
+            out.value(fabric);
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    // EFFECTS: reads a patch from JSON; fields may come in any order and unknown fields are skipped
+    //          throws JsonParseException if the JSON does not describe a valid patch
+    @Override
+    public Patch read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String tag = null;
+        int rotation = 0;
+        String squareFabric = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals(TYPE_FIELD)) {
+                tag = in.nextString();
+            } else if (name.equals("rotation")) {
+                rotation = in.nextInt();
+            } else if (name.equals("fabrics")) {
+                squareFabric = readFirstFabric(in);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return makePatch(tag, rotation, squareFabric);
+    }
+
+    // EFFECTS: reads a list of fabrics, and returns the first one that is not null (the fabric of a square patch)
+    private String readFirstFabric(JsonReader in) throws IOException {
+        String fabric = null;
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (fabric == null) {
+                fabric = in.nextString();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endArray();
+        return fabric;
+    }
+
+    // EFFECTS: creates the patch of given type tag; squares are made of squareFabric
+    //          throws JsonParseException if the tag is unknown or a square has no fabric
+    private Patch makePatch(String tag, int rotation, String squareFabric) {
+        if ("SQ".equals(tag) && squareFabric != null) {
+            return new Square(squareFabric);
+        } else if ("HS".equals(tag)) {
+            return new HalfSquare(rotation);
+        } else if ("HT".equals(tag)) {
+            return new HalfSquareTriangle(rotation);
+        }
+        throw new JsonParseException("not a valid patch: " + tag);
+    }
+
+    // EFFECTS: returns the type tag written for patches of given type
+    private static String tagOf(PatchType patchType) {
+        switch (patchType) {
+            case HALF_SQUARE:
+                return "HS";
+            case HALF_TRIANGLE:
+                return "HT";
+            default:
+                return "SQ";
+        }
+    }
+
+}
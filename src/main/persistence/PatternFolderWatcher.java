@@ -0,0 +1,89 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+Watches a folder on a background thread, and tells a listener the names of the files in it that were added, changed
+or removed, as soon as the file system reports them
+Saving a file usually shows up as several events in a row, so events arriving within a few milliseconds of each other
+are gathered up, and the listener is told about each file only once for them
+If the file system lost track of some events, the listener is given null instead: any file may have changed
+ */
+
+public class PatternFolderWatcher implements Closeable {
+
+    private static final long SETTLE_MILLIS = 20;
+
+    private final WatchService watchService;
+    private final Consumer<Set<String>> listener;
+
+    // EFFECTS: starts watching given folder on a background thread, giving listener the names of changed files
+    //          throws IOException if the folder cannot be watched
+    public PatternFolderWatcher(File folder, Consumer<Set<String>> listener) throws IOException {
+        Path path = folder.toPath();
+        this.listener = listener;
+        this.watchService = path.getFileSystem().newWatchService();
+        path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        Thread thread = new Thread(this::watch, "pattern-folder-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // EFFECTS: waits for changes to the folder and tells the listener about them, until the watcher is closed
+    private void watch() {
+        try {
+            while (true) {
+                Set<String> fileNames = new TreeSet<>();
+                boolean complete = true;
+                WatchKey key = watchService.take();
+                while (key != null) {
+                    complete &= collectFileNames(key, fileNames);
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                try {
+                    listener.accept(complete ? fileNames : null);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the watcher has been closed
+        }
+    }
+
+    // MODIFIES: fileNames
+    // EFFECTS: adds the names of the files changed in the events of given key to fileNames, and makes the key ready
+    //          for more events; returns false if some events were lost
+    private boolean collectFileNames(WatchKey key, Set<String> fileNames) {
+        boolean complete = true;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                complete = false;
+            } else {
+                fileNames.add(event.context().toString());
+            }
+        }
+        key.reset();
+        return complete;
+    }
+
+    // EFFECTS: stops watching the folder; changes not yet given to the listener are dropped
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+}
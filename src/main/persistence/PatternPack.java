@@ -0,0 +1,96 @@
+package persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+A pattern pack: every block pattern in the pattern folder, already parsed and packed (see PackedBlock), in one file
+The pack is read with a single read of one small file, instead of opening and parsing one JSON file per pattern
+Along with each pattern, the pack records the size and last-modified time of the file it was parsed from; a pack is
+only used if the pattern files are exactly the ones it was made from, unchanged, and must be rebuilt otherwise
+File layout (big-endian): the magic bytes "PWPP", the format version, the number of patterns, then for each pattern
+its block type and file path (modified UTF-8), the file's size and last-modified time, and the packed pattern
+ */
+
+public final class PatternPack {
+
+    private static final byte[] MAGIC = {'P', 'W', 'P', 'P'};
+    private static final int VERSION = 1;
+
+    private PatternPack() { }
+
+    // EFFECTS: returns the packed patterns in given pack file by block type, if the pack was made from exactly the
+    //          pattern files in sources (a map from block type to pattern file path) and none of them has changed
+    //          since; returns null if the pack is missing, damaged or out of date
+    public static Map<String, Long> read(File packFile, Map<String, String> sources) {
+        if (!packFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                Files.readAllBytes(packFile.toPath())))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC) || in.readInt() != VERSION) {
+                return null;
+            }
+            Map<String, Long> patterns = readPatterns(in, sources);
+            return patterns != null && patterns.size() == sources.size() ? patterns : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    // EFFECTS: reads the patterns in the rest of a pack, after its header, by block type; returns null if any of
+    //          them was not made from the pattern file for its block type in sources, or that file has changed since
+    //          throws IOException if the pack ends too soon
+    private static Map<String, Long> readPatterns(DataInputStream in, Map<String, String> sources) throws IOException {
+        int count = in.readInt();
+        Map<String, Long> patterns = new HashMap<>();
+        for (int index = 0; index < count; index++) {
+            String blockType = in.readUTF();
+            File source = new File(in.readUTF());
+            if (!source.getPath().equals(sources.get(blockType)) || source.length() != in.readLong()
+                    || source.lastModified() != in.readLong()) {
+                return null;
+            }
+            patterns.put(blockType, in.readLong());
+        }
+        return patterns;
+    }
+
+    // REQUIRES: patterns has a pattern for every block type in sources
+    // MODIFIES: packFile
+    // EFFECTS: writes a pack of given packed patterns, made from the pattern files in sources (a map from block type
+    //          to pattern file path), to a temporary file and then moves it over packFile
+    public static void write(File packFile, Map<String, String> sources, Map<String, Long> patterns)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sources.size());
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                File sourceFile = new File(source.getValue());
+                out.writeUTF(source.getKey());
+                out.writeUTF(source.getValue());
+                out.writeLong(sourceFile.length());
+                out.writeLong(sourceFile.lastModified());
+                out.writeLong(patterns.get(source.getKey()));
+            }
+        }
+        File tempFile = new File(packFile.getPath() + ".tmp");
+        Files.write(tempFile.toPath(), bytes.toByteArray());
+        Files.move(tempFile.toPath(), packFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+}
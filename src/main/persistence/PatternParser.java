@@ -0,0 +1,192 @@
+package persistence;
+
+import model.patches.Fabric;
+import model.patches.HalfSquare;
+import model.patches.HalfSquareTriangle;
+import model.patches.Patch;
+import model.patches.Square;
+
+import java.util.ArrayList;
+
+/*
+A parser for block patterns written in pattern notation, a short text form that is quicker to read and write by hand
+than JSON; pattern files in this notation end in FILE_TYPE
+Each patch is written as its type followed by one more part:
+ - SQa or SQb: a square of fabric A or B
+ - HS0, HS90, HS180 or HS270: a half-square turned that many degrees clockwise
+ - HT0, HT90, HT180 or HT270: a half-square triangle turned that many degrees clockwise
+Patches are separated by spaces, and rows of patches by a slash or a new line; every row must have the same number of
+patches. Anything from a # to the end of the line is a comment. For example, a shoo fly block is:
+  HT180 SQb HT270 / SQb SQa SQb / HT90 SQb HT0
+The text is read one character at a time, without regular expressions or reflection
+ */
+
+public final class PatternParser {
+
+    public static final String FILE_TYPE = ".pat";
+
+    private final CharSequence text;
+    private int position;
+    private int line;
+    private int lineStart;
+
+    // EFFECTS: creates a parser at the start of given text
+    private PatternParser(CharSequence text) {
+        this.text = text;
+        this.line = 1;
+    }
+
+    // EFFECTS: returns the patches of the pattern written in given text, row by row
+    //          throws IllegalArgumentException, giving the line and column of the problem, if the text is not a
+    //          pattern, has no patches at all, or its rows are not all the same length
+    public static ArrayList<Patch> parse(CharSequence text) {
+        return new PatternParser(text).parsePattern();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the whole text as a pattern, and returns its patches
+    //          throws IllegalArgumentException at line 1, column 1 if there are no patches in the text
+    private ArrayList<Patch> parsePattern() {
+        ArrayList<Patch> patches = new ArrayList<>();
+        int rowLength = 0;
+        int rowStart = 0;
+        while (skipSpace()) {
+            char next = text.charAt(position);
+            if (next == '/' || next == '\n') {
+                rowLength = endRow(rowLength, patches.size() - rowStart);
+                rowStart = patches.size();
+                nextCharacter();
+            } else {
+                patches.add(parsePatch());
+            }
+        }
+        endRow(rowLength, patches.size() - rowStart);
+        if (patches.isEmpty()) {
+            position = 0;
+            line = 1;
+            lineStart = 0;
+            throw error("expected at least one patch, but there are none");
+        }
+        return patches;
+    }
+
+    // EFFECTS: returns the length every row must have, given that so far and the length of the row just ended; rows
+    //          with no patches, such as blank lines, are not counted
+    //          throws IllegalArgumentException if the row is a different length from the rows before it
+    private int endRow(int rowLength, int length) {
+        if (length == 0) {
+            return rowLength;
+        } else if (rowLength != 0 && length != rowLength) {
+            throw error("row has " + length + " patches, but the rows before it have " + rowLength);
+        }
+        return length;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads one patch, and returns it
+    //          throws IllegalArgumentException if there is no patch here
+    private Patch parsePatch() {
+        if (!startsWith("SQ") && !startsWith("HS") && !startsWith("HT")) {
+            throw error("expected a patch: SQ, HS or HT");
+        }
+        char type = text.charAt(position + 1);
+        position += 2;
+        Patch patch;
+        if (type == 'Q') {
+            patch = new Square(parseFabric().getLabel());
+        } else if (type == 'S') {
+            patch = new HalfSquare(parseRotation());
+        } else {
+            patch = new HalfSquareTriangle(parseRotation());
+        }
+        if (position < text.length() && !isSeparator(text.charAt(position))) {
+            throw error("expected a space, slash or new line after the patch");
+        }
+        return patch;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the fabric of a square, a or b (in either case), and returns it
+    //          throws IllegalArgumentException if there is no fabric here
+    private Fabric parseFabric() {
+        char label = position < text.length() ? Character.toUpperCase(text.charAt(position)) : 0;
+        for (Fabric fabric : Fabric.values()) {
+            if (fabric.getLabel().charAt(0) == label) {
+                position++;
+                return fabric;
+            }
+        }
+        throw error("expected the fabric of the square: a or b");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads a rotation, 0, 90, 180 or 270, and returns it
+    //          throws IllegalArgumentException if there is no rotation here
+    private int parseRotation() {
+        int start = position;
+        int rotation = 0;
+        while (position < text.length() && position - start < 3 && Character.isDigit(text.charAt(position))) {
+            rotation = rotation * 10 + (text.charAt(position) - '0');
+            position++;
+        }
+        if (position == start || rotation % 90 != 0 || rotation >= 360) {
+            position = start;
+            throw error("expected a rotation: 0, 90, 180 or 270");
+        }
+        return rotation;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips spaces, tabs, carriage returns and comments, stopping at a new line; returns true if there is
+    //          more text after them
+    private boolean skipSpace() {
+        while (position < text.length()) {
+            char next = text.charAt(position);
+            if (next == '#') {
+                while (position < text.length() && text.charAt(position) != '\n') {
+                    position++;
+                }
+            } else if (next == ' ' || next == '\t' || next == '\r') {
+                position++;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves past the next character, keeping track of which line it is on
+    private void nextCharacter() {
+        if (text.charAt(position) == '\n') {
+            line++;
+            lineStart = position + 1;
+        }
+        position++;
+    }
+
+    // EFFECTS: returns true if the text at the current position starts with given prefix
+    private boolean startsWith(String prefix) {
+        if (position + prefix.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(position + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EFFECTS: returns true if given character may follow a patch
+    private static boolean isSeparator(char next) {
+        return next == ' ' || next == '\t' || next == '\r' || next == '\n' || next == '/' || next == '#';
+    }
+
+    // EFFECTS: returns an exception with given message, saying where in the text the problem is
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(
+                "line " + line + ", column " + (position - lineStart + 1) + ": " + message);
+    }
+
+}
@@ -0,0 +1,79 @@
+package persistence;
+
+import model.Quilt;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/*
+A command that rewrites every saved quilt in a directory in the current quilt file format
+Each file is read with the Reader, which understands every earlier version of the format, and written back through a
+temporary file that then replaces the original, so a failed migration never leaves a half-written quilt behind
+The temporary file is read back before it replaces the original, and the original is kept if it does not hold the
+same blocks; the current format only keeps each block's type, so a quilt using a block type that is not in the block
+map, whose patches only the old file holds, is left as it is
+Files are migrated in parallel; files that are not quilts are reported and left as they are
+ */
+
+public class QuiltFileMigrator {
+
+    private static final String QUILT_FILE_TYPE = ".json";
+
+    // EFFECTS: migrates the quilt files in the directory named by the first argument, and reports how many were
+    //          migrated
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("usage: QuiltFileMigrator <directory of saved quilts>");
+            return;
+        }
+        File directory = new File(args[0]);
+        try {
+            int migrated = migrateDirectory(directory);
+            System.out.println("Migrated " + migrated + " quilt files in " + directory);
+        } catch (IOException e) {
+            System.err.println("Could not migrate " + directory + ": " + e.getMessage());
+        }
+    }
+
+    // MODIFIES: quilt files in directory
+    // EFFECTS: rewrites every quilt file in directory in the current file format, in parallel, and returns the
+    //          number of files rewritten; files that cannot be read as quilts are left unchanged
+    //          throws IOException if directory is not a directory
+    public static int migrateDirectory(File directory) throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(QUILT_FILE_TYPE));
+        if (files == null) {
+            throw new IOException("not a directory: " + directory);
+        }
+        return (int) Arrays.stream(files)
+                .parallel()
+                .filter(File::isFile)
+                .filter(QuiltFileMigrator::migrateFile)
+                .count();
+    }
+
+    // MODIFIES: file
+    // EFFECTS: rewrites given quilt file in the current file format, compressed if it was compressed before, and
+    //          returns true; returns false and leaves the file unchanged if it cannot be read as a quilt or rewritten,
+    //          or if the rewritten file cannot be read back as the same quilt
+    public static boolean migrateFile(File file) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            boolean compressed = Reader.isCompressed(file);
+            Quilt quilt = Reader.readQuilt(file);
+            quilt.save(Writer.open(tempFile, compressed));
+            if (!Reader.readQuilt(tempFile).getBlockHistogram().equals(quilt.getBlockHistogram())) {
+                throw new IOException("rewritten quilt does not hold the same blocks");
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Skipped " + file + ": " + e.getMessage());
+            tempFile.delete();
+            return false;
+        }
+    }
+
+}
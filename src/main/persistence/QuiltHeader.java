@@ -0,0 +1,62 @@
+package persistence;
+
+import java.util.Collections;
+import java.util.List;
+
+/*
+Represents the header of a quilt file: everything about the quilt except which block is in each slot
+Reading just the header of a file is enough to list saved quilts with their size and the blocks they use
+ */
+
+public final class QuiltHeader {
+
+    private final int numBlocksAcross;
+    private final int numBlocksDown;
+    private final double blockSize;
+    private final String[] fabricColours;
+    private final List<String> blockTypes;
+    private final int slotsOffset;
+
+    // EFFECTS: creates a header for a quilt of given size, colours and block type dictionary, whose slots start at
+    //          slotsOffset bytes into the file (-1 if the file is not a binary quilt file)
+    QuiltHeader(int numBlocksAcross, int numBlocksDown, double blockSize, String[] fabricColours,
+                List<String> blockTypes, int slotsOffset) {
+        this.numBlocksAcross = numBlocksAcross;
+        this.numBlocksDown = numBlocksDown;
+        this.blockSize = blockSize;
+        this.fabricColours = fabricColours;
+        this.blockTypes = Collections.unmodifiableList(blockTypes);
+        this.slotsOffset = slotsOffset;
+    }
+
+    // getters
+    public int getNumBlocksAcross() {
+        return numBlocksAcross;
+    }
+
+    public int getNumBlocksDown() {
+        return numBlocksDown;
+    }
+
+    public int getTotalBlocks() {
+        return numBlocksAcross * numBlocksDown;
+    }
+
+    public double getBlockSize() {
+        return blockSize;
+    }
+
+    public String[] getFabricColours() {
+        return fabricColours.clone();
+    }
+
+    // EFFECTS: returns the block types used in the quilt; each slot stores an index into this list
+    public List<String> getBlockTypes() {
+        return blockTypes;
+    }
+
+    int getSlotsOffset() {
+        return slotsOffset;
+    }
+
+}
@@ -0,0 +1,320 @@
+package persistence;
+
+import exceptions.BlockUnavailableException;
+import exceptions.SlotOutOfBoundsException;
+import model.Quilt;
+import model.QuiltObserver;
+import model.blocks.Block;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/*
+An append-only journal of the edits made to a quilt, kept in a directory next to a snapshot of the quilt
+Every change to the quilt's blocks or colours is appended to the journal as one short line of text:
+ - "A <slot> <block type>" when a slot gets a block
+ - "R <slot>" when a slot is emptied
+ - "C <colour A> <colour B>" when the fabric colours change ("-" for no colour)
+Records hold the new state of a slot or of the colours, not the change, so replaying a record twice does no harm
+A background thread compacts the journal every so often: the journal is moved aside to journal.old and a new one is
+started, then the old records are replayed over the last snapshot into a new snapshot, written off to the side
+Only once the new snapshot is written does it atomically replace the last one, and journal.old is deleted; each of
+these hand-overs is brief, so starting or stopping the journal never waits for a whole compaction, and a compaction
+that finds the journal restarted or stopped while it worked throws its result away. Compaction only works from the
+files, so it never touches the quilt being edited
+After a crash, the quilt is recovered by replaying journal.old (if it is still there) and then the journal over the
+snapshot; a record cut short by the crash, and anything after it, is ignored
+Closing the journal is a clean shutdown, and deletes the snapshot and journal, so only a crash leaves a quilt to recover
+ */
+
+public class QuiltJournal implements QuiltObserver, Closeable {
+
+    public static final String SNAPSHOT_FILE = "snapshot.json";
+    public static final String JOURNAL_FILE = "journal.log";
+    public static final String OLD_JOURNAL_FILE = "journal.old";
+    public static final String COMPACTED_FILE = "snapshot.compacted";
+
+    private static final String NO_COLOUR = "-";
+
+    private final File directory;
+    private final Object compactionLock = new Object();
+    private final ScheduledExecutorService compactor;
+    private Quilt quilt;
+    private BufferedWriter journalWriter;
+    private int recordsSinceCompaction;
+    private int generation;
+
+    // EFFECTS: creates a journal kept in given directory (created if needed) that is compacted in the background
+    //          every compactionPeriod seconds; nothing is journalled until a quilt is started
+    public QuiltJournal(File directory, long compactionPeriod) {
+        this.directory = directory;
+        directory.mkdirs();
+        compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quilt-journal-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactQuietly, compactionPeriod, compactionPeriod, TimeUnit.SECONDS);
+    }
+
+    // EFFECTS: returns the quilt saved in the journal in given directory, with every journalled edit replayed, or
+    //          null if there is no journalled quilt
+    //          throws IOException if the snapshot cannot be read
+    public static Quilt recover(File directory) throws IOException {
+        File snapshot = new File(directory, SNAPSHOT_FILE);
+        if (!snapshot.exists()) {
+            return null;
+        }
+        Quilt quilt = Reader.readQuilt(snapshot);
+        replay(quilt, new File(directory, OLD_JOURNAL_FILE));
+        replay(quilt, new File(directory, JOURNAL_FILE));
+        return quilt;
+    }
+
+    // MODIFIES: this, quilt
+    // EFFECTS: starts journalling given quilt in place of any quilt journalled before: writes a snapshot of it,
+    //          empties the journal and observes the quilt for edits
+    //          throws IOException if the snapshot or journal cannot be written
+    public synchronized void start(Quilt quilt) throws IOException {
+        stopObserving();
+        writeSnapshot(quilt);
+        Files.deleteIfExists(fileOf(OLD_JOURNAL_FILE).toPath());
+        journalWriter = openJournal();
+        this.quilt = quilt;
+        quilt.addObserver(this);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops journalling, and deletes the snapshot and journal so there is nothing to recover
+    public synchronized void stop() throws IOException {
+        stopObserving();
+        for (String fileName : new String[]{SNAPSHOT_FILE, JOURNAL_FILE, OLD_JOURNAL_FILE, COMPACTED_FILE}) {
+            Files.deleteIfExists(fileOf(fileName).toPath());
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: folds every record journalled so far into the snapshot, leaving an empty journal; does nothing if
+    //          nothing has been journalled since the last compaction, and throws away its work if the journal is
+    //          started again or stopped before it finishes
+    //          throws IOException if the journal or snapshot cannot be read or written
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            int compactedGeneration;
+            synchronized (this) {
+                if (!rotateJournal()) {
+                    return;
+                }
+                compactedGeneration = generation;
+            }
+            File compactedFile = fileOf(COMPACTED_FILE);
+            try {
+                Quilt compacted = Reader.readQuilt(fileOf(SNAPSHOT_FILE));
+                replay(compacted, fileOf(OLD_JOURNAL_FILE));
+                Writer.writeAtomically(compacted, compactedFile);
+            } catch (IOException e) {
+                if (isGeneration(compactedGeneration)) {
+                    throw e;
+                }
+            }
+            replaceSnapshot(compactedGeneration, compactedFile);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops the background compaction and then stops journalling, as stop() does, so there is nothing to
+    //          recover after a clean shutdown
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stop();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends a record of the new state of each changed slot to the journal
+    @Override
+    public synchronized void blocksChanged(Quilt changedQuilt, BitSet changedSlots) {
+        StringBuilder records = new StringBuilder();
+        for (int slot = changedSlots.nextSetBit(0); slot >= 0; slot = changedSlots.nextSetBit(slot + 1)) {
+            Block block = changedQuilt.getBlock(slot);
+            if (block == null) {
+                records.append("R ").append(slot).append('\n');
+            } else {
+                records.append("A ").append(slot).append(' ').append(block.getBlockType()).append('\n');
+            }
+        }
+        append(records.toString(), changedSlots.cardinality());
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends a record of the quilt's new fabric colours to the journal
+    @Override
+    public synchronized void fabricColoursChanged(Quilt changedQuilt) {
+        String[] colours = changedQuilt.getFabricColours();
+        append("C " + encodeColour(colours[0]) + " " + encodeColour(colours[1]) + "\n", 1);
+    }
+
+    // EFFECTS: returns the number of records journalled since the journal was started or last compacted
+    public synchronized int getRecordsSinceCompaction() {
+        return recordsSinceCompaction;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: appends given records to the journal file and hands them to the operating system straight away
+    private void append(String records, int numRecords) {
+        if (journalWriter == null) {
+            return;
+        }
+        try {
+            journalWriter.write(records);
+            journalWriter.flush();
+            recordsSinceCompaction += numRecords;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves the journal aside to journal.old (adding it to the end of journal.old, if an earlier
+    //          compaction did not finish) and starts a new, empty journal; returns false and does nothing if there
+    //          is nothing to compact
+    private synchronized boolean rotateJournal() throws IOException {
+        if (journalWriter == null || recordsSinceCompaction == 0) {
+            return false;
+        }
+        journalWriter.close();
+        File journal = fileOf(JOURNAL_FILE);
+        File oldJournal = fileOf(OLD_JOURNAL_FILE);
+        if (oldJournal.exists()) {
+            Files.write(oldJournal.toPath(), Files.readAllBytes(journal.toPath()), StandardOpenOption.APPEND);
+            Files.delete(journal.toPath());
+        } else {
+            Files.move(journal.toPath(), oldJournal.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        journalWriter = openJournal();
+        recordsSinceCompaction = 0;
+        return true;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: moves given compacted snapshot over the snapshot and deletes journal.old, if the journal has not been
+    //          started again or stopped since the compaction began; otherwise just deletes the compacted snapshot
+    private synchronized void replaceSnapshot(int compactedGeneration, File compactedFile) throws IOException {
+        if (isGeneration(compactedGeneration) && compactedFile.exists()) {
+            Files.move(compactedFile.toPath(), fileOf(SNAPSHOT_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(fileOf(OLD_JOURNAL_FILE).toPath());
+        } else {
+            Files.deleteIfExists(compactedFile.toPath());
+        }
+    }
+
+    // EFFECTS: returns true if the journal has not been started again or stopped since it was at given generation
+    private synchronized boolean isGeneration(int compactedGeneration) {
+        return generation == compactedGeneration;
+    }
+
+    // EFFECTS: writes given quilt over the snapshot atomically, so there is always a complete snapshot on disk
+    private void writeSnapshot(Quilt snapshotQuilt) throws IOException {
+        Writer.writeAtomically(snapshotQuilt, fileOf(SNAPSHOT_FILE));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stops observing the current quilt (if any) and closes the journal file; any compaction under way
+    //          will throw its work away
+    private void stopObserving() throws IOException {
+        generation++;
+        if (quilt != null) {
+            quilt.removeObserver(this);
+            quilt = null;
+        }
+        if (journalWriter != null) {
+            journalWriter.close();
+            journalWriter = null;
+        }
+        recordsSinceCompaction = 0;
+    }
+
+    // EFFECTS: opens a new, empty journal file for writing
+    private BufferedWriter openJournal() throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileOf(JOURNAL_FILE)),
+                StandardCharsets.UTF_8));
+    }
+
+    // EFFECTS: compacts the journal, reporting rather than throwing any problem; used by the background thread
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // EFFECTS: returns the file with given name in the journal directory
+    private File fileOf(String fileName) {
+        return new File(directory, fileName);
+    }
+
+    // MODIFIES: quilt
+    // EFFECTS: applies each record in given journal file (if it exists) to quilt, stopping at the first record that
+    //          is not valid; a last record without its line end was cut short, and is left out
+    private static void replay(Quilt quilt, File journal) throws IOException {
+        if (!journal.exists()) {
+            return;
+        }
+        String[] records = new String(Files.readAllBytes(journal.toPath()), StandardCharsets.UTF_8).split("\n", -1);
+        for (int i = 0; i < records.length - 1; i++) {
+            if (!apply(quilt, records[i])) {
+                return;
+            }
+        }
+    }
+
+    // MODIFIES: quilt
+    // EFFECTS: applies given record to quilt, and returns true; returns false if the record is not valid
+    private static boolean apply(Quilt quilt, String record) {
+        String[] fields = record.split(" ", 3);
+        try {
+            if (fields[0].equals("A") && fields.length == 3) {
+                quilt.addBlock(fields[2], Integer.parseInt(fields[1]));
+            } else if (fields[0].equals("R") && fields.length == 2) {
+                quilt.removeBlock(Integer.parseInt(fields[1]));
+            } else if (fields[0].equals("C") && fields.length == 3) {
+                quilt.setFabricColours(decodeColour(fields[1]), decodeColour(fields[2]));
+            } else {
+                return false;
+            }
+            return true;
+        } catch (NumberFormatException | BlockUnavailableException | SlotOutOfBoundsException e) {
+            return false;
+        }
+    }
+
+    // EFFECTS: returns the journal form of given colour, which may be null
+    private static String encodeColour(String colour) {
+        return colour == null ? NO_COLOUR : colour;
+    }
+
+    // EFFECTS: returns the colour given its journal form
+    private static String decodeColour(String colour) {
+        return colour.equals(NO_COLOUR) ? null : colour;
+    }
+
+}
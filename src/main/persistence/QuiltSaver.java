@@ -0,0 +1,166 @@
+package persistence;
+
+import model.Quilt;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/*
+Saves quilts to a file on a background thread, so that saving never holds up whoever asked for the save
+Each save takes a copy of the quilt straight away, so the quilt can go on being edited while the copy is written
+The copy is written with Writer.writeAtomically, so the file always holds a complete quilt
+Saves asked for while an earlier one is still waiting to be written are coalesced: only the newest quilt is written,
+and every one of those saves finishes when it has been
+Work to do with a saved copy once it is on disk, such as keeping it as a version, can be given with the save; it is
+done on the saver's thread, after the write, so closing the saver waits for it too. When saves are coalesced, only
+the work given with the newest of them is done, once, with the quilt that was actually written
+ */
+
+public class QuiltSaver implements Closeable {
+
+    private final File file;
+    private final ExecutorService writer;
+    private Quilt pendingQuilt;
+    private CompletableFuture<Void> pendingSave;
+    private Consumer<Quilt> pendingAfterWrite;
+    private CompletableFuture<Void> pendingAfterWriteDone;
+    private int writeCount;
+
+    // EFFECTS: creates a saver that writes quilts to given file on its own background thread
+    public QuiltSaver(File file) {
+        this(file, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quilt-saver");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    // EFFECTS: creates a saver that writes quilts to given file using given single-threaded executor
+    QuiltSaver(File file, ExecutorService writer) {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    // REQUIRES: saver has not been closed
+    // MODIFIES: this
+    // EFFECTS: takes a copy of quilt and schedules it to be written to file; returns a future that completes once a
+    //          copy at least as new as this one is on disk, or completes exceptionally if that write fails
+    public CompletableFuture<Void> save(Quilt quilt) {
+        return schedule(quilt.copy(), null);
+    }
+
+    // REQUIRES: saver has not been closed
+    // MODIFIES: this
+    // EFFECTS: takes a copy of quilt and schedules it to be written to file, as save(quilt) does; once it has been,
+    //          gives the quilt that was written to afterWrite on the saver's thread, unless a newer save with work of
+    //          its own is coalesced with this one, in which case only that newer work is done; returns a future that
+    //          completes once the work has run, or completes exceptionally if the write or the work fails
+    public CompletableFuture<Void> save(Quilt quilt, Consumer<Quilt> afterWrite) {
+        return schedule(quilt.copy(), afterWrite);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: makes snapshot the newest quilt waiting to be written, starting a write if none is waiting; if
+    //          afterWrite is not null, makes it the work to do once the quilt has been written and returns a future
+    //          for that work, otherwise returns the pending save
+    private synchronized CompletableFuture<Void> schedule(Quilt snapshot, Consumer<Quilt> afterWrite) {
+        pendingQuilt = snapshot;
+        if (pendingSave == null) {
+            pendingSave = new CompletableFuture<>();
+            writer.execute(this::writePending);
+        }
+        if (afterWrite == null) {
+            return pendingSave;
+        }
+        pendingAfterWrite = afterWrite;
+        if (pendingAfterWriteDone == null) {
+            pendingAfterWriteDone = new CompletableFuture<>();
+        }
+        return pendingAfterWriteDone;
+    }
+
+    // EFFECTS: returns the number of times a quilt has been written to file
+    public synchronized int getWriteCount() {
+        return writeCount;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: waits for any saves that have been asked for to be written, and the work given with them to be done,
+    //          then stops the background thread
+    @Override
+    public void close() throws IOException {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for quilt to be saved");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: writes the newest quilt waiting to be saved to file, completes the saves waiting on it, and then does
+    //          the work given with the newest of them
+    private void writePending() {
+        PendingWrite pending = takePending();
+        try {
+            Writer.writeAtomically(pending.quilt, file);
+            synchronized (this) {
+                writeCount++;
+            }
+            pending.save.complete(null);
+        } catch (IOException | RuntimeException e) {
+            pending.save.completeExceptionally(e);
+            if (pending.afterWriteDone != null) {
+                pending.afterWriteDone.completeExceptionally(e);
+            }
+            return;
+        }
+        if (pending.afterWrite != null) {
+            try {
+                pending.afterWrite.accept(pending.quilt);
+                pending.afterWriteDone.complete(null);
+            } catch (RuntimeException e) {
+                pending.afterWriteDone.completeExceptionally(e);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: returns the quilt waiting to be saved and what waits on it, leaving nothing waiting
+    private synchronized PendingWrite takePending() {
+        PendingWrite pending = new PendingWrite(pendingQuilt, pendingSave, pendingAfterWrite, pendingAfterWriteDone);
+        pendingQuilt = null;
+        pendingSave = null;
+        pendingAfterWrite = null;
+        pendingAfterWriteDone = null;
+        return pending;
+    }
+
+    /*
+    A quilt taken to be written, with the save waiting on it and the work (if any) to do once it has been
+     */
+    private static class PendingWrite {
+        private final Quilt quilt;
+        private final CompletableFuture<Void> save;
+        private final Consumer<Quilt> afterWrite;
+        private final CompletableFuture<Void> afterWriteDone;
+
+        // EFFECTS: creates a pending write of given quilt
+        PendingWrite(Quilt quilt, CompletableFuture<Void> save, Consumer<Quilt> afterWrite,
+                     CompletableFuture<Void> afterWriteDone) {
+            this.quilt = quilt;
+            this.save = save;
+            this.afterWrite = afterWrite;
+            this.afterWriteDone = afterWriteDone;
+        }
+    }
+
+}
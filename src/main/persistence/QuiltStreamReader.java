@@ -0,0 +1,209 @@
+package persistence;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+A reader that streams a JSON quilt file one row of slots at a time, without building the quilt
+The header is read as soon as the reader is opened; rows, or a rectangular window of slots, are then read on demand,
+so only the rows asked for are ever held in memory, and a quilt bigger than the heap can be processed row by row
+Slots are given as block types, with null for empty slots
+The file is read front to back, so rows can only be asked for in order; rows that are skipped are not decoded
+Both versions of the quilt file format can be streamed, compressed or not; version 1 files have no block type
+dictionary, so the header's block types are empty, and they save their colours after their blocks, so the header
+holds two null colours
+ */
+
+public class QuiltStreamReader implements Closeable {
+
+    private final JsonReader jsonReader;
+    private final QuiltHeader header;
+    private final boolean dictionaryEncoded;
+    private int nextRow;
+
+    // EFFECTS: opens given JSON quilt file and reads its header
+    //          throws IOException if the file cannot be read or does not describe a quilt
+    public QuiltStreamReader(File file) throws IOException {
+        if (!file.exists()) {
+            throw new FileNotFoundException();
+        }
+        jsonReader = new JsonReader(new BufferedReader(Reader.open(file)));
+        try {
+            HeaderFields fields = new HeaderFields();
+            jsonReader.beginObject();
+            dictionaryEncoded = readHeader(fields);
+            header = fields.makeHeader();
+            jsonReader.beginArray();
+            nextRow = 0;
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            jsonReader.close();
+            throw new IOException("not a valid quilt file", e);
+        }
+    }
+
+    // getter
+    public QuiltHeader getHeader() {
+        return header;
+    }
+
+    // EFFECTS: returns the row that readRow will read next
+    public int getNextRow() {
+        return nextRow;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads and returns the block types in the next row of slots, or null if every row has been read
+    //          throws IOException if the file cannot be read or is not a valid quilt file
+    public String[] readRow() throws IOException {
+        if (nextRow >= header.getNumBlocksDown()) {
+            return null;
+        }
+        String[] row = new String[header.getNumBlocksAcross()];
+        try {
+            for (int col = 0; col < row.length; col++) {
+                row[col] = readSlot();
+            }
+        } catch (IllegalStateException | NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IOException("not a valid quilt file at row " + nextRow, e);
+        }
+        nextRow++;
+        return row;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: skips over the next numRows rows (or every remaining row, if there are fewer) without decoding them
+    //          throws IOException if the file cannot be read or is not a valid quilt file
+    public void skipRows(int numRows) throws IOException {
+        int stopRow = Math.min(header.getNumBlocksDown(), nextRow + numRows);
+        try {
+            for (; nextRow < stopRow; nextRow++) {
+                for (int col = 0; col < header.getNumBlocksAcross() && jsonReader.hasNext(); col++) {
+                    jsonReader.skipValue();
+                }
+            }
+        } catch (IllegalStateException e) {
+            throw new IOException("not a valid quilt file at row " + nextRow, e);
+        }
+    }
+
+    // REQUIRES: row >= getNextRow(), and the window numRows high and numCols wide whose top left slot is in given row
+    //           and column lies inside the quilt
+    // MODIFIES: this
+    // EFFECTS: reads and returns the block types in the window, indexed by row then column within the window; the
+    //          rows before the window are skipped, and reading carries on from the row after the window
+    //          throws IOException if the file cannot be read or is not a valid quilt file
+    public String[][] readWindow(int row, int col, int numRows, int numCols) throws IOException {
+        skipRows(row - nextRow);
+        String[][] window = new String[numRows][];
+        for (int r = 0; r < numRows; r++) {
+            String[] fullRow = readRow();
+            window[r] = new String[numCols];
+            System.arraycopy(fullRow, col, window[r], 0, numCols);
+        }
+        return window;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: closes the file
+    @Override
+    public void close() throws IOException {
+        jsonReader.close();
+    }
+
+    // MODIFIES: this, fields
+    // EFFECTS: reads the quilt's fields into fields up to the start of its slots, and returns true if the slots are
+    //          dictionary indexes (version 2) rather than full blocks (version 1)
+    //          throws IOException if there are no slots, or they come before the quilt's size
+    private boolean readHeader(HeaderFields fields) throws IOException {
+        while (jsonReader.hasNext()) {
+            String name = jsonReader.nextName();
+            if (name.equals("slots") || name.equals("blocks")) {
+                return name.equals("slots");
+            } else if (name.equals("numBlocksAcross")) {
+                fields.numBlocksAcross = jsonReader.nextInt();
+            } else if (name.equals("numBlocksDown")) {
+                fields.numBlocksDown = jsonReader.nextInt();
+            } else if (name.equals("blockSize")) {
+                fields.blockSize = jsonReader.nextDouble();
+            } else if (name.equals("blockTypes")) {
+                fields.blockTypes = readStrings();
+            } else if (name.equals("fabricColours") && jsonReader.peek() != JsonToken.NULL) {
+                fields.colours = readStrings().toArray(new String[2]);
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        throw new IOException("quilt file has no slots");
+    }
+
+    // EFFECTS: reads a list of strings, any of which may be null
+    private List<String> readStrings() throws IOException {
+        List<String> strings = new ArrayList<>();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.nextNull();
+                strings.add(null);
+            } else {
+                strings.add(jsonReader.nextString());
+            }
+        }
+        jsonReader.endArray();
+        return strings;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: reads the next slot and returns its block type, or null if it is empty; slots missing from the end of
+    //          the file are empty
+    private String readSlot() throws IOException {
+        if (!jsonReader.hasNext()) {
+            return null;
+        } else if (dictionaryEncoded) {
+            int index = jsonReader.nextInt();
+            return index == QuiltTypeAdapter.EMPTY_SLOT ? null : header.getBlockTypes().get(index);
+        } else if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        String blockType = null;
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            if (jsonReader.nextName().equals("blockType")) {
+                blockType = jsonReader.nextString();
+            } else {
+                jsonReader.skipValue();
+            }
+        }
+        jsonReader.endObject();
+        return blockType;
+    }
+
+    /*
+    Holds the parts of a quilt header read so far
+     */
+    private static class HeaderFields {
+        private int numBlocksAcross;
+        private int numBlocksDown;
+        private double blockSize;
+        private List<String> blockTypes = new ArrayList<>();
+        private String[] colours = new String[2];
+
+        // EFFECTS: returns the header that was read
+        //          throws IOException if the quilt's size is missing or not valid
+        private QuiltHeader makeHeader() throws IOException {
+            if (numBlocksAcross <= 0 || numBlocksDown <= 0 || blockSize <= 0) {
+                throw new IOException("quilt file has no valid size ahead of its slots");
+            }
+            return new QuiltHeader(numBlocksAcross, numBlocksDown, blockSize, colours, blockTypes, -1);
+        }
+    }
+
+}
@@ -0,0 +1,172 @@
+package persistence;
+
+import model.BillOfMaterials;
+import model.Quilt;
+import model.patches.Fabric;
+import model.patches.PatchType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents a summary of a quilt: its header, how many blocks of each type it has, the fabric and patches needed to
+make it, and a thumbnail of it; quilt files start with their summary, so it can be read without reading the blocks
+(see Reader.readSummary)
+The thumbnail is a grid of at most THUMBNAIL_SIZE by THUMBNAIL_SIZE cells; each cell covers a square of blocks and
+shows the block type there is most of in that square (null if it is all empty)
+A summary is a snapshot and does not change when the quilt does
+ */
+
+public final class QuiltSummary {
+
+    public static final int THUMBNAIL_SIZE = 32;
+    public static final int EMPTY_CELL = -1;
+
+    private final QuiltHeader header;
+    private final int[] blockCounts;
+    private final double[] fabricAmounts;
+    private final int[] patchCounts;
+    private final double backing;
+    private final double binding;
+    private final int[] thumbnail;
+
+    // REQUIRES: blockCounts is indexed like header's block types, fabricAmounts by Fabric.ordinal(), patchCounts by
+    //           PatchType.ordinal(), and thumbnail holds, row by row, the index into header's block types (or
+    //           EMPTY_CELL) of each thumbnail cell; none of the arrays is used by anyone else afterwards
+    // EFFECTS: creates a summary of the quilt with given header and contents
+    QuiltSummary(QuiltHeader header, int[] blockCounts, double[] fabricAmounts, int[] patchCounts, double backing,
+                 double binding, int[] thumbnail) {
+        this.header = header;
+        this.blockCounts = blockCounts;
+        this.fabricAmounts = fabricAmounts;
+        this.patchCounts = patchCounts;
+        this.backing = backing;
+        this.binding = binding;
+        this.thumbnail = thumbnail;
+    }
+
+    // EFFECTS: returns a summary of given quilt as it is now
+    public static QuiltSummary of(Quilt quilt) {
+        Map<String, Integer> histogram = quilt.getBlockHistogram();
+        List<String> blockTypes = new ArrayList<>(histogram.keySet());
+        QuiltHeader header = new QuiltHeader(quilt.getNumBlocksAcross(), quilt.getNumBlocksDown(),
+                quilt.getBlockSize(), quilt.getFabricColours(), blockTypes, -1);
+        int[] blockCounts = new int[blockTypes.size()];
+        for (int index = 0; index < blockCounts.length; index++) {
+            blockCounts[index] = histogram.get(blockTypes.get(index));
+        }
+        BillOfMaterials materials = quilt.billOfMaterials();
+        double[] fabricAmounts = new double[Fabric.values().length];
+        for (Fabric fabric : Fabric.values()) {
+            fabricAmounts[fabric.ordinal()] = materials.getFabric(fabric);
+        }
+        int[] patchCounts = new int[PatchType.values().length];
+        for (PatchType patchType : PatchType.values()) {
+            patchCounts[patchType.ordinal()] = materials.getPatchCount(patchType);
+        }
+        return new QuiltSummary(header, blockCounts, fabricAmounts, patchCounts, materials.getBacking(),
+                materials.getBinding(), drawThumbnail(quilt, header));
+    }
+
+    // EFFECTS: returns the thumbnail cells of given quilt, whose header has been made, by finding the block type
+    //          there is most of in each cell; only occupied slots are visited, one block type at a time
+    private static int[] drawThumbnail(Quilt quilt, QuiltHeader header) {
+        int scale = getThumbnailScale(header);
+        int thumbnailAcross = getThumbnailAcross(header);
+        int[] thumbnail = new int[thumbnailAcross * getThumbnailDown(header)];
+        Arrays.fill(thumbnail, EMPTY_CELL);
+        int[] mostInCell = new int[thumbnail.length];
+        int[] countInCell = new int[thumbnail.length];
+        List<String> blockTypes = header.getBlockTypes();
+        for (int index = 0; index < blockTypes.size(); index++) {
+            Arrays.fill(countInCell, 0);
+            for (int slot : quilt.getSlotsOf(blockTypes.get(index))) {
+                int row = slot / header.getNumBlocksAcross() / scale;
+                int col = slot % header.getNumBlocksAcross() / scale;
+                int cell = row * thumbnailAcross + col;
+                countInCell[cell]++;
+                if (countInCell[cell] > mostInCell[cell]) {
+                    mostInCell[cell] = countInCell[cell];
+                    thumbnail[cell] = index;
+                }
+            }
+        }
+        return thumbnail;
+    }
+
+    // EFFECTS: returns the number of blocks across (and down) covered by each thumbnail cell of a quilt with given
+    //          header
+    static int getThumbnailScale(QuiltHeader header) {
+        int longestSide = Math.max(header.getNumBlocksAcross(), header.getNumBlocksDown());
+        return Math.max(1, (longestSide + THUMBNAIL_SIZE - 1) / THUMBNAIL_SIZE);
+    }
+
+    // EFFECTS: returns the number of thumbnail cells across for a quilt with given header
+    static int getThumbnailAcross(QuiltHeader header) {
+        return (header.getNumBlocksAcross() + getThumbnailScale(header) - 1) / getThumbnailScale(header);
+    }
+
+    // EFFECTS: returns the number of thumbnail cells down for a quilt with given header
+    static int getThumbnailDown(QuiltHeader header) {
+        return (header.getNumBlocksDown() + getThumbnailScale(header) - 1) / getThumbnailScale(header);
+    }
+
+    // getters
+    public QuiltHeader getHeader() {
+        return header;
+    }
+
+    // EFFECTS: returns the number of blocks of given type in the quilt
+    public int countBlocks(String blockType) {
+        int index = header.getBlockTypes().indexOf(blockType);
+        return index < 0 ? 0 : blockCounts[index];
+    }
+
+    // EFFECTS: returns the fabric needed (in square inches) of given fabric
+    public double getFabric(Fabric fabric) {
+        return fabricAmounts[fabric.ordinal()];
+    }
+
+    // EFFECTS: returns the number of patches needed of given type
+    public int getPatchCount(PatchType patchType) {
+        return patchCounts[patchType.ordinal()];
+    }
+
+    // EFFECTS: returns the total backing needed (in square inches)
+    public double getBacking() {
+        return backing;
+    }
+
+    // EFFECTS: returns the total fabric needed for binding (in square inches)
+    public double getBinding() {
+        return binding;
+    }
+
+    // EFFECTS: returns the number of thumbnail cells across
+    public int getThumbnailAcross() {
+        return getThumbnailAcross(header);
+    }
+
+    // EFFECTS: returns the number of thumbnail cells down
+    public int getThumbnailDown() {
+        return getThumbnailDown(header);
+    }
+
+    // REQUIRES: 0 <= row < getThumbnailDown() and 0 <= col < getThumbnailAcross()
+    // EFFECTS: returns the block type shown in given thumbnail cell, or null if the cell is empty
+    public String getThumbnailBlockType(int row, int col) {
+        int index = thumbnail[row * getThumbnailAcross() + col];
+        return index == EMPTY_CELL ? null : header.getBlockTypes().get(index);
+    }
+
+    int[] getBlockCounts() {
+        return blockCounts;
+    }
+
+    int[] getThumbnail() {
+        return thumbnail;
+    }
+
+}
@@ -0,0 +1,210 @@
+package persistence;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.patches.Fabric;
+import model.patches.PatchType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Streams quilt summaries to and from JSON without reflection
+A summary is written as one object holding the quilt's header, a count per block type (in the order of the block
+types), the fabric needed per fabric label, the patches needed per patch type name, the backing and binding, and
+the thumbnail cells row by row as indices into the block types (QuiltSummary.EMPTY_CELL for empty cells)
+ */
+
+public class QuiltSummaryTypeAdapter extends TypeAdapter<QuiltSummary> {
+
+    // EFFECTS: writes given summary as JSON
+    @Override
+    public void write(JsonWriter out, QuiltSummary summary) throws IOException {
+        if (summary == null) {
+            out.nullValue();
+            return;
+        }
+        QuiltHeader header = summary.getHeader();
+        out.beginObject();
+        out.name("numBlocksAcross").value(header.getNumBlocksAcross());
+        out.name("numBlocksDown").value(header.getNumBlocksDown());
+        out.name("blockSize").value(header.getBlockSize());
+        QuiltTypeAdapter.writeColours(out, header.getFabricColours());
+        out.name("blockTypes").beginArray();
+        for (String blockType : header.getBlockTypes()) {
+            out.value(blockType);
+        }
+        out.endArray();
+        writeInts(out.name("blockCounts"), summary.getBlockCounts());
+        writeMaterials(out, summary);
+        writeInts(out.name("thumbnail"), summary.getThumbnail());
+        out.endObject();
+    }
+
+    // EFFECTS: writes the fabric, patches, backing and binding needed for the summarized quilt
+    private void writeMaterials(JsonWriter out, QuiltSummary summary) throws IOException {
+        out.name("fabricAmounts").beginObject();
+        for (Fabric fabric : Fabric.values()) {
+            out.name(fabric.getLabel()).value(summary.getFabric(fabric));
+        }
+        out.endObject();
+        out.name("patchCounts").beginObject();
+        for (PatchType patchType : PatchType.values()) {
+            out.name(patchType.getTypeName()).value(summary.getPatchCount(patchType));
+        }
+        out.endObject();
+        out.name("backing").value(summary.getBacking());
+        out.name("binding").value(summary.getBinding());
+    }
+
+    // EFFECTS: writes given ints as an array
+    private void writeInts(JsonWriter out, int[] values) throws IOException {
+        out.beginArray();
+        for (int value : values) {
+            out.value(value);
+        }
+        out.endArray();
+    }
+
+    // EFFECTS: reads a summary from JSON, with its fields in any order; unknown fields are skipped
+    //          throws JsonParseException if the JSON does not describe a valid summary
+    @Override
+    public QuiltSummary read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        SummaryFields fields = new SummaryFields();
+        in.beginObject();
+        while (in.hasNext()) {
+            readField(in, in.nextName(), fields);
+        }
+        in.endObject();
+        return fields.makeSummary();
+    }
+
+    // MODIFIES: fields
+    // EFFECTS: reads the value of the summary field with given name into fields
+    private void readField(JsonReader in, String name, SummaryFields fields) throws IOException {
+        if (name.equals("numBlocksAcross")) {
+            fields.numBlocksAcross = in.nextInt();
+        } else if (name.equals("numBlocksDown")) {
+            fields.numBlocksDown = in.nextInt();
+        } else if (name.equals("blockSize")) {
+            fields.blockSize = in.nextDouble();
+        } else if (name.equals("fabricColours") && in.peek() != JsonToken.NULL) {
+            fields.colours = QuiltTypeAdapter.readStrings(in, new ArrayList<>()).toArray(new String[2]);
+        } else if (name.equals("blockTypes")) {
+            fields.blockTypes = QuiltTypeAdapter.readStrings(in, new ArrayList<>());
+        } else if (name.equals("blockCounts")) {
+            fields.blockCounts = readInts(in);
+        } else if (name.equals("thumbnail")) {
+            fields.thumbnail = readInts(in);
+        } else {
+            readMaterialsField(in, name, fields);
+        }
+    }
+
+    // MODIFIES: fields
+    // EFFECTS: reads the value of the materials field with given name into fields; unknown fields are skipped
+    private void readMaterialsField(JsonReader in, String name, SummaryFields fields) throws IOException {
+        if (name.equals("fabricAmounts")) {
+            readFabric(in, fields.fabricAmounts);
+        } else if (name.equals("patchCounts")) {
+            readPatches(in, fields.patchCounts);
+        } else if (name.equals("backing")) {
+            fields.backing = in.nextDouble();
+        } else if (name.equals("binding")) {
+            fields.binding = in.nextDouble();
+        } else {
+            in.skipValue();
+        }
+    }
+
+    // MODIFIES: fabricAmounts
+    // EFFECTS: reads the fabric needed per fabric label into fabricAmounts; unknown fabrics are skipped
+    private void readFabric(JsonReader in, double[] fabricAmounts) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            Fabric fabric = Fabric.fromLabel(in.nextName());
+            if (fabric == null) {
+                in.skipValue();
+            } else {
+                fabricAmounts[fabric.ordinal()] = in.nextDouble();
+            }
+        }
+        in.endObject();
+    }
+
+    // MODIFIES: patchCounts
+    // EFFECTS: reads the patches needed per patch type name into patchCounts; unknown patch types are skipped
+    private void readPatches(JsonReader in, int[] patchCounts) throws IOException {
+        in.beginObject();
+        while (in.hasNext()) {
+            PatchType patchType = PatchType.fromTypeName(in.nextName());
+            if (patchType == null) {
+                in.skipValue();
+            } else {
+                patchCounts[patchType.ordinal()] = in.nextInt();
+            }
+        }
+        in.endObject();
+    }
+
+    // EFFECTS: reads an array of ints
+    private int[] readInts(JsonReader in) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(in.nextInt());
+        }
+        in.endArray();
+        int[] ints = new int[values.size()];
+        for (int index = 0; index < ints.length; index++) {
+            ints[index] = values.get(index);
+        }
+        return ints;
+    }
+
+    /*
+    Holds the parts of a summary read so far
+     */
+    private static class SummaryFields {
+        private int numBlocksAcross;
+        private int numBlocksDown;
+        private double blockSize;
+        private String[] colours = new String[2];
+        private List<String> blockTypes;
+        private int[] blockCounts;
+        private final double[] fabricAmounts = new double[Fabric.values().length];
+        private final int[] patchCounts = new int[PatchType.values().length];
+        private double backing;
+        private double binding;
+        private int[] thumbnail;
+
+        // EFFECTS: returns the summary that was read
+        //          throws JsonParseException if its parts are missing or do not fit together
+        private QuiltSummary makeSummary() {
+            if (blockTypes == null || blockCounts == null || thumbnail == null
+                    || blockCounts.length != blockTypes.size()) {
+                throw new JsonParseException("not a valid quilt summary: missing block types");
+            }
+            QuiltHeader header = new QuiltHeader(numBlocksAcross, numBlocksDown, blockSize, colours, blockTypes, -1);
+            int cells = QuiltSummary.getThumbnailAcross(header) * QuiltSummary.getThumbnailDown(header);
+            if (numBlocksAcross <= 0 || numBlocksDown <= 0 || thumbnail.length != cells) {
+                throw new JsonParseException("not a valid quilt summary: bad thumbnail");
+            }
+            for (int index : thumbnail) {
+                if (index < QuiltSummary.EMPTY_CELL || index >= blockTypes.size()) {
+                    throw new JsonParseException("not a valid quilt summary: unknown block type in thumbnail");
+                }
+            }
+            return new QuiltSummary(header, blockCounts, fabricAmounts, patchCounts, backing, binding, thumbnail);
+        }
+    }
+
+}
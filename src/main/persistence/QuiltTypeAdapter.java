@@ -0,0 +1,284 @@
+package persistence;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import exceptions.BlockUnavailableException;
+import exceptions.IllegalQuiltSizeException;
+import exceptions.SlotOutOfBoundsException;
+import model.Quilt;
+import model.blocks.Block;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Streams quilts to and from JSON without reflection
+Quilts are written in version 2 of the quilt file format: a dictionary of the block types used in the quilt, and
+one index into that dictionary per slot (EMPTY_SLOT for empty slots); patches are not saved, since they are the
+same for every block of a type, and are looked up in the BlockMap when the quilt is read back in
+Each file starts with a summary of the quilt (see QuiltSummary), so previews can be shown without reading the blocks;
+the summary is worked out again from the blocks when a quilt is read, so it is skipped then
+Version 1 files, which have no version field and save every block with its full list of patches (null for empty
+slots), can still be read
+Blocks are read straight into the quilt as they arrive, so no list of blocks is built for quilts saved by Patchwork,
+which always writes everything else about the quilt ahead of its slots (see QuiltStreamReader)
+ */
+
+public class QuiltTypeAdapter extends TypeAdapter<Quilt> {
+
+    public static final int VERSION = 2;
+    public static final int EMPTY_SLOT = -1;
+
+    private final BlockTypeAdapter blockAdapter;
+    private final QuiltSummaryTypeAdapter summaryAdapter;
+
+    // EFFECTS: creates a quilt adapter that reads blocks from version 1 files with given block adapter, and writes
+    //          quilt summaries with given summary adapter
+    public QuiltTypeAdapter(BlockTypeAdapter blockAdapter, QuiltSummaryTypeAdapter summaryAdapter) {
+        this.blockAdapter = blockAdapter;
+        this.summaryAdapter = summaryAdapter;
+    }
+
+    // EFFECTS: writes given quilt as version 2 JSON, starting with its summary
+    @Override
+    public void write(JsonWriter out, Quilt quilt) throws IOException {
+        if (quilt == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("version").value(VERSION);
+        summaryAdapter.write(out.name("summary"), QuiltSummary.of(quilt));
+        out.name("numBlocksAcross").value(quilt.getNumBlocksAcross());
+        out.name("numBlocksDown").value(quilt.getNumBlocksDown());
+        out.name("blockSize").value(quilt.getBlockSize());
+        writeColours(out, quilt.getFabricColours());
+        writeSlots(out, quilt);
+        out.endObject();
+    }
+
+    // EFFECTS: writes the block type dictionary of a quilt, then the dictionary index of each of its slots
+    private void writeSlots(JsonWriter out, Quilt quilt) throws IOException {
+        Map<String, Integer> dictionary = new HashMap<>();
+        out.name("blockTypes").beginArray();
+        for (String blockType : quilt.getBlockHistogram().keySet()) {
+            dictionary.put(blockType, dictionary.size());
+            out.value(blockType);
+        }
+        out.endArray();
+        out.name("slots").beginArray();
+        for (Block block : quilt.getBlocks()) {
+            out.value(block == null ? EMPTY_SLOT : dictionary.get(block.getBlockType()));
+        }
+        out.endArray();
+    }
+
+    // EFFECTS: writes the fabric colours of a quilt
+    static void writeColours(JsonWriter out, String[] colours) throws IOException {
+        out.name("fabricColours").beginArray();
+        for (String colour : colours) {
+            out.value(colour);
+        }
+        out.endArray();
+    }
+
+    // EFFECTS: reads a quilt from version 1 or version 2 JSON
+    //          throws JsonParseException if the JSON does not describe a valid quilt
+    @Override
+    public Quilt read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        QuiltFields fields = new QuiltFields();
+        in.beginObject();
+        while (in.hasNext()) {
+            readField(in, in.nextName(), fields);
+        }
+        in.endObject();
+        Quilt quilt = fields.makeQuilt();
+        if (fields.blocks != null) {
+            fillFromBlocks(quilt, fields.blocks);
+        }
+        if (fields.slots != null) {
+            fillFromSlots(quilt, fields.blockTypes, fields.slots);
+        }
+        if (fields.colours != null) {
+            quilt.setFabricColours(fields.colours[0], fields.colours[1]);
+        }
+        return quilt;
+    }
+
+    // MODIFIES: fields
+    // EFFECTS: reads the value of the quilt field with given name into fields; unknown fields are skipped
+    //          throws JsonParseException if the file is from a later version of the format
+    private void readField(JsonReader in, String name, QuiltFields fields) throws IOException {
+        if (name.equals("version")) {
+            int version = in.nextInt();
+            if (version > VERSION) {
+                throw new JsonParseException("unsupported quilt file version: " + version);
+            }
+        } else if (name.equals("numBlocksAcross")) {
+            fields.numBlocksAcross = in.nextInt();
+        } else if (name.equals("numBlocksDown")) {
+            fields.numBlocksDown = in.nextInt();
+        } else if (name.equals("blockSize")) {
+            fields.blockSize = in.nextDouble();
+        } else if (name.equals("blockTypes")) {
+            fields.blockTypes = readStrings(in, new ArrayList<>());
+        } else if (name.equals("slots")) {
+            readSlots(in, fields);
+        } else if (name.equals("blocks")) {
+            readBlocks(in, fields);
+        } else if (name.equals("fabricColours") && in.peek() != JsonToken.NULL) {
+            fields.colours = readStrings(in, new ArrayList<>()).toArray(new String[2]);
+        } else {
+            in.skipValue();
+        }
+    }
+
+    // MODIFIES: fields
+    // EFFECTS: reads the dictionary index of each slot (version 2); they go straight into the quilt if its size
+    //          and block type dictionary are already known, otherwise they are kept in fields until they are
+    private void readSlots(JsonReader in, QuiltFields fields) throws IOException {
+        boolean direct = fields.hasSize() && fields.blockTypes != null;
+        Quilt quilt = direct ? fields.makeQuilt() : null;
+        List<Integer> slots = direct ? null : new ArrayList<>();
+        in.beginArray();
+        for (int slot = 0; in.hasNext(); slot++) {
+            int index = in.nextInt();
+            if (!direct) {
+                slots.add(index);
+            } else if (index != EMPTY_SLOT) {
+                addBlock(quilt, fields.blockTypes, index, slot);
+            }
+        }
+        in.endArray();
+        fields.slots = slots;
+    }
+
+    // MODIFIES: fields
+    // EFFECTS: reads the quilt's blocks (version 1); they go straight into the quilt if its size is already known,
+    //          otherwise they are kept in fields until it is
+    private void readBlocks(JsonReader in, QuiltFields fields) throws IOException {
+        boolean direct = fields.hasSize();
+        Quilt quilt = direct ? fields.makeQuilt() : null;
+        List<Block> blocks = direct ? null : new ArrayList<>();
+        in.beginArray();
+        for (int slot = 0; in.hasNext(); slot++) {
+            Block block = blockAdapter.read(in);
+            if (!direct) {
+                blocks.add(block);
+            } else if (block != null) {
+                setBlock(quilt, block, slot);
+            }
+        }
+        in.endArray();
+        fields.blocks = blocks;
+    }
+
+    // EFFECTS: reads a list of strings, any of which may be null, into given list and returns it
+    static List<String> readStrings(JsonReader in, List<String> strings) throws IOException {
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                strings.add(null);
+            } else {
+                strings.add(in.nextString());
+            }
+        }
+        in.endArray();
+        return strings;
+    }
+
+    // MODIFIES: quilt
+    // EFFECTS: puts the blocks read from a version 1 file into the quilt
+    private void fillFromBlocks(Quilt quilt, List<Block> blocks) {
+        for (int slot = 0; slot < blocks.size(); slot++) {
+            if (blocks.get(slot) != null) {
+                setBlock(quilt, blocks.get(slot), slot);
+            }
+        }
+    }
+
+    // MODIFIES: quilt
+    // EFFECTS: puts a block of the type at each slot's dictionary index into the quilt (version 2)
+    //          throws JsonParseException if there is no block type dictionary
+    private void fillFromSlots(Quilt quilt, List<String> blockTypes, List<Integer> slots) {
+        if (blockTypes == null) {
+            throw new JsonParseException("not a valid quilt: missing block types");
+        }
+        for (int slot = 0; slot < slots.size(); slot++) {
+            if (slots.get(slot) != EMPTY_SLOT) {
+                addBlock(quilt, blockTypes, slots.get(slot), slot);
+            }
+        }
+    }
+
+    // MODIFIES: quilt
+    // EFFECTS: puts a block of the type at given dictionary index into given slot of the quilt
+    //          throws JsonParseException if the index, slot or block type is not valid
+    private void addBlock(Quilt quilt, List<String> blockTypes, int index, int slot) {
+        try {
+            quilt.addBlock(blockTypes.get(index), slot);
+        } catch (IndexOutOfBoundsException | NullPointerException | BlockUnavailableException e) {
+            throw new JsonParseException("not a valid quilt: unknown block type at slot " + slot, e);
+        } catch (SlotOutOfBoundsException e) {
+            throw new JsonParseException("not a valid quilt: too many slots", e);
+        }
+    }
+
+    // MODIFIES: quilt
+    // EFFECTS: puts given block into given slot of the quilt
+    //          throws JsonParseException if the slot is not in the quilt
+    private void setBlock(Quilt quilt, Block block, int slot) {
+        try {
+            quilt.setBlock(block, slot);
+        } catch (SlotOutOfBoundsException e) {
+            throw new JsonParseException("not a valid quilt: too many blocks", e);
+        }
+    }
+
+    /*
+    Holds the parts of a quilt read so far
+     */
+    private static class QuiltFields {
+        private Integer numBlocksAcross;
+        private Integer numBlocksDown;
+        private Double blockSize;
+        private Quilt quilt;
+        private List<String> blockTypes;
+        private List<Integer> slots;
+        private List<Block> blocks;
+        private String[] colours;
+
+        // EFFECTS: returns true if the quilt's size has been read
+        private boolean hasSize() {
+            return numBlocksAcross != null && numBlocksDown != null && blockSize != null;
+        }
+
+        // EFFECTS: returns the quilt of the size that was read, creating it the first time
+        //          throws JsonParseException if the size is missing or not valid
+        private Quilt makeQuilt() {
+            if (quilt == null) {
+                if (!hasSize()) {
+                    throw new JsonParseException("not a valid quilt: missing size");
+                }
+                try {
+                    quilt = new Quilt(numBlocksAcross, numBlocksDown, blockSize);
+                } catch (IllegalQuiltSizeException e) {
+                    throw new JsonParseException("not a valid quilt: bad size", e);
+                }
+            }
+            return quilt;
+        }
+    }
+
+}
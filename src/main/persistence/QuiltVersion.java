@@ -0,0 +1,41 @@
+package persistence;
+
+/*
+Represents one version of a quilt kept in a snapshot store: when it was taken, what it was labelled, and the id of
+the stored object describing it
+ */
+
+public final class QuiltVersion {
+
+    private final int number;
+    private final long timestamp;
+    private final String label;
+    private final String treeId;
+
+    // EFFECTS: creates a version with given number, taken at given time (in milliseconds since the epoch), with
+    //          given label, whose quilt is described by the stored object with given id
+    QuiltVersion(int number, long timestamp, String label, String treeId) {
+        this.number = number;
+        this.timestamp = timestamp;
+        this.label = label;
+        this.treeId = treeId;
+    }
+
+    // getters
+    public int getNumber() {
+        return number;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    String getTreeId() {
+        return treeId;
+    }
+
+}
@@ -4,45 +4,150 @@ package persistence;
 import model.Quilt;
 import model.patches.Patch;
 
+import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
 
 /*
 A reader that can read data from a file and turn it into objects (quilt, blocks, patches)
 This reader uses an external library, Gson, to deserialize JSON objects
+Block patterns can also be read from files in pattern notation (see PatternParser)
+JSON files compressed by Writer are recognized by the gzip magic bytes they start with, and are decompressed as
+they are read
  */
 
 public class Reader {
 
+    // code to deserialize as an ArrayList of a certain type adapted from Gson tutorial available at:
+    // https://futurestud.io/tutorials/gson-mapping-of-arrays-and-lists-of-objects
+    private static final Type PATCH_LIST_TYPE = new TypeToken<ArrayList<Patch>>(){}.getType();
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int DECOMPRESSION_BUFFER = 64 * 1024;
+
     // EFFECTS: reads data from JSON file, deserializes data into a Quilt object, and returns the Quilt
+    //          files in any version of the quilt file format can be read (see QuiltTypeAdapter), as can binary
+    //          quilt files
     public static Quilt readQuilt(File file) throws IOException {
         if (!file.exists()) {
             throw new FileNotFoundException();
+        } else if (BinaryQuiltFormat.isBinaryQuiltFile(file)) {
+            return mapQuilt(file).toQuilt();
         } else {
-            FileReader fileReader = new FileReader(file);
-            GsonConfigured gsonConfigured = new GsonConfigured();
-            return gsonConfigured.getGson().fromJson(fileReader, Quilt.class);
+            try (InputStreamReader fileReader = open(file)) {
+                Quilt quilt = GsonConfigured.getGson().fromJson(fileReader, Quilt.class);
+                if (quilt == null) {
+                    throw new IOException("empty quilt file");
+                }
+                return quilt;
+            } catch (JsonParseException | NumberFormatException e) {
+                throw new IOException("not a valid quilt file", e);
+            }
+        }
+    }
+
+    // EFFECTS: memory-maps a binary quilt file and returns a view of the quilt in it; only the header is read now,
+    //          and each slot is read when it is asked for
+    public static MappedQuilt mapQuilt(File file) throws IOException {
+        if (!file.exists()) {
+            throw new FileNotFoundException();
         }
+        MappedByteBuffer mapped = BinaryQuiltFormat.map(file);
+        return new MappedQuilt(BinaryQuiltFormat.readHeader(mapped), mapped);
+    }
+
+    // EFFECTS: reads only the header of a binary quilt file: its size, block size, colours and block types
+    public static QuiltHeader readQuiltHeader(File file) throws IOException {
+        return mapQuilt(file).getHeader();
+    }
+
+    // EFFECTS: reads only the summary at the start of a quilt file: its header, block counts, materials and thumbnail
+    //          files saved without a summary (binary files, and those from before summaries were saved) are read in
+    //          full and summarized instead
+    //          throws IOException if the file cannot be read or does not describe a quilt
+    public static QuiltSummary readSummary(File file) throws IOException {
+        if (!file.exists()) {
+            throw new FileNotFoundException();
+        } else if (!BinaryQuiltFormat.isBinaryQuiltFile(file)) {
+            try (JsonReader jsonReader = new JsonReader(new BufferedReader(open(file)))) {
+                jsonReader.beginObject();
+                while (jsonReader.hasNext()) {
+                    String name = jsonReader.nextName();
+                    if (name.equals("summary")) {
+                        return GsonConfigured.getGson().getAdapter(QuiltSummary.class).read(jsonReader);
+                    } else if (name.equals("slots") || name.equals("blocks")) {
+                        break;
+                    }
+                    jsonReader.skipValue();
+                }
+            } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+                throw new IOException("not a valid quilt file", e);
+            }
+        }
+        return QuiltSummary.of(readQuilt(file));
     }
 
     // EFFECTS: reads data from JSON file, deserializes data into a list of Patch objects, & returns the list
+    //          files ending in PatternParser.FILE_TYPE are read as pattern notation instead (see PatternParser)
     public static ArrayList<Patch> readPatchPattern(File file) throws IOException {
         if (!file.exists()) {
             throw new FileNotFoundException();
+        } else if (file.getName().endsWith(PatternParser.FILE_TYPE)) {
+            try {
+                return PatternParser.parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("not a valid pattern file: " + e.getMessage(), e);
+            }
         } else {
-            FileReader fileReader = new FileReader(file);
-            GsonConfigured gsonConfigured = new GsonConfigured();
-            // code to deserialize as an ArrayList of a certain type adapted from Gson tutorial available at:
-            // https://futurestud.io/tutorials/gson-mapping-of-arrays-and-lists-of-objects
-            Type patchListType = new TypeToken<ArrayList<Patch>>(){}.getType();
-            return gsonConfigured.getGson().fromJson(fileReader, patchListType);
+            try (InputStreamReader fileReader = new InputStreamReader(new FileInputStream(file),
+                    StandardCharsets.UTF_8)) {
+                return GsonConfigured.getGson().fromJson(fileReader, PATCH_LIST_TYPE);
+            }
+        }
+    }
+
+    // EFFECTS: returns true if file starts with the gzip magic bytes, i.e. was written compressed
+    public static boolean isCompressed(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return isCompressed(in);
         }
     }
 
+    // EFFECTS: opens file for reading text in UTF-8, decompressing it as it is read if it is gzip-compressed
+    static InputStreamReader open(File file) throws IOException {
+        InputStream in = new BufferedInputStream(new FileInputStream(file), DECOMPRESSION_BUFFER);
+        try {
+            in.mark(2);
+            boolean compressed = isCompressed(in);
+            in.reset();
+            return new InputStreamReader(compressed ? new GZIPInputStream(in, DECOMPRESSION_BUFFER) : in,
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    // MODIFIES: in
+    // EFFECTS: reads the first two bytes of in and returns true if they are the gzip magic bytes
+    private static boolean isCompressed(InputStream in) throws IOException {
+        int first = in.read();
+        int second = in.read();
+        return first >= 0 && second >= 0 && (first | (second << 8)) == GZIP_MAGIC;
+    }
+
 }
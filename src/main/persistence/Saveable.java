@@ -1,7 +1,7 @@
 package persistence;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 
 /*
 Specifies behaviour for all classes that should be saveable to file
@@ -11,7 +11,13 @@ NOTE: Code for this class is copied from the TellerApp project
 public interface Saveable {
 
     // MODIFIES: fileWriter
-    // EFFECTS: writes the saveable to file
-    void save(FileWriter fileWriter) throws IOException;
+    // EFFECTS: writes the saveable to file (or to any stream, e.g. one that compresses what is written to it)
+    default void save(OutputStreamWriter fileWriter) throws IOException {
+        save(fileWriter, false);
+    }
+
+    // MODIFIES: fileWriter
+    // EFFECTS: writes the saveable to file (or to any stream), laid out to be human-readable if prettyPrint is true
+    void save(OutputStreamWriter fileWriter, boolean prettyPrint) throws IOException;
 
 }
@@ -0,0 +1,332 @@
+package persistence;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import exceptions.BlockUnavailableException;
+import exceptions.IllegalQuiltSizeException;
+import exceptions.SlotOutOfBoundsException;
+import model.Quilt;
+import model.blocks.Block;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+A store of versions of quilts, kept in a directory, in which each distinct piece of a quilt is only stored once
+Each row of a quilt is stored as an object: a JSON array of the block types in the row (null for empty slots),
+named by the SHA-256 hash of its contents; each version of a quilt is stored as a tree object, holding the quilt's
+size and colours and the ids of its rows; versions.log lists the versions, one per line:
+"<number> <time in milliseconds> <tree id> <label>"
+Objects are only ever added, never changed, so a row that is the same in many versions, or many times in one
+version, takes up space once: keeping a new version costs about as much as the rows that changed since the last one
+Pruning forgets old versions and deletes the objects no remaining version uses
+ */
+
+public class SnapshotStore {
+
+    public static final String OBJECTS_FOLDER = "objects";
+    public static final String VERSIONS_FILE = "versions.log";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final String TREE_ID_PATTERN = "[0-9a-f]{64}";
+
+    private final File directory;
+    private final File objects;
+
+    // EFFECTS: creates a store kept in given directory (created if needed)
+    public SnapshotStore(File directory) {
+        this.directory = directory;
+        this.objects = new File(directory, OBJECTS_FOLDER);
+        objects.mkdirs();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores the quilt as it is now as a new version with given label, and returns the version; only rows
+    //          that are not stored yet are written
+    public synchronized QuiltVersion snapshot(Quilt quilt, String label) throws IOException {
+        List<String> rowIds = new ArrayList<>();
+        String[] row = new String[quilt.getNumBlocksAcross()];
+        for (int rowIndex = 0; rowIndex < quilt.getNumBlocksDown(); rowIndex++) {
+            for (int col = 0; col < row.length; col++) {
+                Block block = quilt.getBlock(rowIndex * row.length + col);
+                row[col] = block == null ? null : block.getBlockType();
+            }
+            rowIds.add(store(GsonConfigured.getGson().toJson(row)));
+        }
+        String treeId = store(writeTree(quilt, rowIds));
+        List<QuiltVersion> versions = listVersions();
+        int number = versions.isEmpty() ? 1 : versions.get(versions.size() - 1).getNumber() + 1;
+        QuiltVersion version = new QuiltVersion(number, System.currentTimeMillis(),
+                label == null ? "" : label.replace('\n', ' '), treeId);
+        appendVersion(version);
+        return version;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds given version to the end of versions.log, on a line of its own even if the last line was cut
+    //          short by a crash
+    private void appendVersion(QuiltVersion version) throws IOException {
+        File versionsFile = new File(directory, VERSIONS_FILE);
+        String line = formatVersion(version);
+        if (versionsFile.length() > 0) {
+            try (RandomAccessFile file = new RandomAccessFile(versionsFile, "r")) {
+                file.seek(versionsFile.length() - 1);
+                if (file.read() != '\n') {
+                    line = "\n" + line;
+                }
+            }
+        }
+        Files.write(versionsFile.toPath(), line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    // EFFECTS: returns the versions in the store, oldest first
+    public synchronized List<QuiltVersion> listVersions() throws IOException {
+        List<QuiltVersion> versions = new ArrayList<>();
+        File versionsFile = new File(directory, VERSIONS_FILE);
+        if (!versionsFile.exists()) {
+            return versions;
+        }
+        for (String line : Files.readAllLines(versionsFile.toPath(), StandardCharsets.UTF_8)) {
+            String[] fields = line.split(" ", 4);
+            try {
+                if (fields[2].matches(TREE_ID_PATTERN)) {
+                    versions.add(new QuiltVersion(Integer.parseInt(fields[0]), Long.parseLong(fields[1]),
+                            fields[3], fields[2]));
+                }
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                // a line cut short by a crash while it was being written; the version was never taken
+            }
+        }
+        return versions;
+    }
+
+    // EFFECTS: returns the quilt as it was in the version with given number
+    //          throws IOException if there is no such version, or its stored objects are missing or damaged
+    public synchronized Quilt restore(int number) throws IOException {
+        for (QuiltVersion version : listVersions()) {
+            if (version.getNumber() == number) {
+                return readQuilt(readTree(version.getTreeId()));
+            }
+        }
+        throw new IOException("no version " + number + " in snapshot store");
+    }
+
+    // MODIFIES: this
+    // EFFECTS: forgets all but the newest keepLatest versions, deletes the objects that none of the remaining
+    //          versions use, and returns the number of objects deleted
+    public synchronized int prune(int keepLatest) throws IOException {
+        List<QuiltVersion> versions = listVersions();
+        List<QuiltVersion> kept = versions.subList(Math.max(0, versions.size() - keepLatest), versions.size());
+        StringBuilder log = new StringBuilder();
+        Set<String> used = new HashSet<>();
+        for (QuiltVersion version : kept) {
+            log.append(formatVersion(version));
+            used.add(version.getTreeId());
+            used.addAll(readTree(version.getTreeId()).rowIds);
+        }
+        File tempFile = new File(directory, VERSIONS_FILE + ".tmp");
+        Files.write(tempFile.toPath(), log.toString().getBytes(StandardCharsets.UTF_8));
+        Files.move(tempFile.toPath(), new File(directory, VERSIONS_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return deleteUnused(used);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: deletes every stored object whose id is not in used, and returns the number deleted
+    private int deleteUnused(Set<String> used) throws IOException {
+        int deleted = 0;
+        for (File folder : listFiles(objects)) {
+            for (File object : listFiles(folder)) {
+                if (!used.contains(folder.getName() + object.getName())) {
+                    Files.delete(object.toPath());
+                    deleted++;
+                }
+            }
+            if (listFiles(folder).length == 0) {
+                Files.delete(folder.toPath());
+            }
+        }
+        return deleted;
+    }
+
+    // EFFECTS: returns the files in given folder
+    private File[] listFiles(File folder) throws IOException {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            throw new IOException("could not list " + folder);
+        }
+        return files;
+    }
+
+    // EFFECTS: returns the line of versions.log for given version
+    private String formatVersion(QuiltVersion version) {
+        return version.getNumber() + " " + version.getTimestamp() + " " + version.getTreeId() + " "
+                + version.getLabel() + "\n";
+    }
+
+    // MODIFIES: this
+    // EFFECTS: stores given contents as an object, unless an object with the same contents is already stored, and
+    //          returns its id; the object is written to a temporary file first, so a stored object is never partial
+    private String store(String contents) throws IOException {
+        byte[] bytes = contents.getBytes(StandardCharsets.UTF_8);
+        String id = hash(bytes);
+        File object = objectFile(id);
+        if (!object.exists()) {
+            object.getParentFile().mkdirs();
+            File tempFile = new File(object.getPath() + ".tmp");
+            Files.write(tempFile.toPath(), bytes);
+            Files.move(tempFile.toPath(), object.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        return id;
+    }
+
+    // EFFECTS: returns the contents of the object with given id
+    //          throws IOException if it is missing, or its contents no longer match its id
+    private String load(String id) throws IOException {
+        byte[] bytes = Files.readAllBytes(objectFile(id).toPath());
+        if (!hash(bytes).equals(id)) {
+            throw new IOException("damaged object in snapshot store: " + id);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // EFFECTS: returns the file of the object with given id; objects are spread over folders named by the first
+    //          two characters of their ids, so that no one folder gets too big
+    private File objectFile(String id) {
+        return new File(new File(objects, id.substring(0, 2)), id.substring(2));
+    }
+
+    // EFFECTS: returns the SHA-256 hash of given bytes in hexadecimal
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(bytes);
+            char[] hex = new char[digest.length * 2];
+            for (int index = 0; index < digest.length; index++) {
+                hex[index * 2] = HEX_DIGITS[(digest[index] >> 4) & 0xf];
+                hex[index * 2 + 1] = HEX_DIGITS[digest[index] & 0xf];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    // EFFECTS: returns the tree object describing given quilt, whose rows are stored with given ids
+    private String writeTree(Quilt quilt, List<String> rowIds) throws IOException {
+        StringWriter tree = new StringWriter();
+        JsonWriter out = new JsonWriter(tree);
+        out.setSerializeNulls(true);
+        out.beginObject();
+        out.name("numBlocksAcross").value(quilt.getNumBlocksAcross());
+        out.name("numBlocksDown").value(quilt.getNumBlocksDown());
+        out.name("blockSize").value(quilt.getBlockSize());
+        QuiltTypeAdapter.writeColours(out, quilt.getFabricColours());
+        out.name("rows").beginArray();
+        for (String rowId : rowIds) {
+            out.value(rowId);
+        }
+        out.endArray();
+        out.endObject();
+        out.close();
+        return tree.toString();
+    }
+
+    // EFFECTS: reads the tree object with given id
+    //          throws IOException if it is missing or damaged
+    private Tree readTree(String treeId) throws IOException {
+        Tree tree = new Tree();
+        try (JsonReader in = new JsonReader(new StringReader(load(treeId)))) {
+            in.beginObject();
+            while (in.hasNext()) {
+                readTreeField(in, in.nextName(), tree);
+            }
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("damaged tree in snapshot store: " + treeId, e);
+        }
+        return tree;
+    }
+
+    // MODIFIES: tree
+    // EFFECTS: reads the value of the tree field with given name into tree; unknown fields are skipped
+    private void readTreeField(JsonReader in, String name, Tree tree) throws IOException {
+        if (name.equals("numBlocksAcross")) {
+            tree.numBlocksAcross = in.nextInt();
+        } else if (name.equals("numBlocksDown")) {
+            tree.numBlocksDown = in.nextInt();
+        } else if (name.equals("blockSize")) {
+            tree.blockSize = in.nextDouble();
+        } else if (name.equals("fabricColours")) {
+            tree.colours = QuiltTypeAdapter.readStrings(in, new ArrayList<>()).toArray(new String[2]);
+        } else if (name.equals("rows")) {
+            tree.rowIds = QuiltTypeAdapter.readStrings(in, new ArrayList<>());
+        } else {
+            in.skipValue();
+        }
+    }
+
+    // EFFECTS: returns the quilt described by given tree, reading each distinct row only once
+    //          throws IOException if the tree or its rows do not describe a valid quilt
+    private Quilt readQuilt(Tree tree) throws IOException {
+        Map<String, String[]> rows = new HashMap<>();
+        try {
+            Quilt quilt = new Quilt(tree.numBlocksAcross, tree.numBlocksDown, tree.blockSize);
+            quilt.setFabricColours(tree.colours[0], tree.colours[1]);
+            for (int rowIndex = 0; rowIndex < tree.rowIds.size(); rowIndex++) {
+                String rowId = tree.rowIds.get(rowIndex);
+                if (!rows.containsKey(rowId)) {
+                    rows.put(rowId, GsonConfigured.getGson().fromJson(load(rowId), String[].class));
+                }
+                fillRow(quilt, rowIndex, rows.get(rowId));
+            }
+            return quilt;
+        } catch (IllegalQuiltSizeException | BlockUnavailableException | SlotOutOfBoundsException
+                | JsonParseException | NullPointerException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("damaged quilt in snapshot store", e);
+        }
+    }
+
+    // MODIFIES: quilt
+    // EFFECTS: puts the blocks of given row into the quilt
+    private void fillRow(Quilt quilt, int rowIndex, String[] row)
+            throws BlockUnavailableException, SlotOutOfBoundsException {
+        if (row.length != quilt.getNumBlocksAcross()) {
+            throw new SlotOutOfBoundsException();
+        }
+        for (int col = 0; col < row.length; col++) {
+            if (row[col] != null) {
+                quilt.addBlock(row[col], rowIndex * row.length + col);
+            }
+        }
+    }
+
+    /*
+    Holds the contents of a tree object
+     */
+    private static class Tree {
+        private int numBlocksAcross;
+        private int numBlocksDown;
+        private double blockSize;
+        private String[] colours = new String[2];
+        private List<String> rowIds = new ArrayList<>();
+    }
+
+}
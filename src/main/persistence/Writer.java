@@ -1,22 +1,39 @@
 package persistence;
 
+import model.Quilt;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
 
 /*
 A writer that can write quilt data to a file
+Data can be gzip-compressed as it is written; it is never held in memory in full either way, and Reader recognizes
+compressed files by their first bytes, so they can be read back just like uncompressed ones
 NOTE: code for this class is copied from the TellerApp project
  */
 
 public class Writer {
 
-    private FileWriter fileWriter;
+    private static final int COMPRESSION_BUFFER = 64 * 1024;
+
+    private OutputStreamWriter fileWriter;
 
     // EFFECTS: constructs a writer that will write data to file
     public Writer(File file) throws IOException {
-        fileWriter = new FileWriter(file);
+        this(file, false);
+    }
+
+    // EFFECTS: constructs a writer that will write data to file, gzip-compressing it as it is written if compressed
+    public Writer(File file, boolean compressed) throws IOException {
+        fileWriter = open(file, compressed);
     }
 
     // MODIFIES: this
@@ -25,11 +42,60 @@ public class Writer {
         saveable.save(fileWriter);
     }
 
+    // MODIFIES: this
+    // EFFECTS: writes saveable to file, laid out to be human-readable if prettyPrint is true
+    public void write(Saveable saveable, boolean prettyPrint) throws IOException {
+        saveable.save(fileWriter, prettyPrint);
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes quilt to file in the binary quilt file format, which loads much faster than JSON for large
+    //          quilts (see Reader.mapQuilt)
+    public static void writeBinary(Quilt quilt, File file) throws IOException {
+        BinaryQuiltFormat.write(quilt, file);
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes saveable to a temporary file next to file, forces it to disk, then renames it over file in one
+    //          step, so file always holds either its old contents or all of the new ones, even after a crash
+    public static void writeAtomically(Saveable saveable, File file) throws IOException {
+        writeAtomically(saveable, file, false);
+    }
+
+    // MODIFIES: file
+    // EFFECTS: writes saveable to file like writeAtomically(saveable, file), gzip-compressing it if compressed
+    public static void writeAtomically(Saveable saveable, File file, boolean compressed) throws IOException {
+        File tempFile = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        try {
+            saveable.save(open(tempFile, compressed));
+            try (FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: close file writer
     public void close() throws IOException {
         fileWriter.close();
     }
 
+    // EFFECTS: opens file for writing text in UTF-8, through a gzip stream if compressed
+    //          the gzip stream is finished when the returned writer is closed
+    static OutputStreamWriter open(File file, boolean compressed) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            return new OutputStreamWriter(compressed ? new GZIPOutputStream(out, COMPRESSION_BUFFER) : out,
+                    StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+
 
 }
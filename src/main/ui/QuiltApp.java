@@ -1,4 +1,3 @@
-//TODO: function to add blocks to multiple spots on the quilt
 //TODO: ability to change size of quilt after creating
 //TODO: ability to save color of quilt
 
@@ -14,10 +13,18 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.stage.Stage;
+import model.BillOfMaterials;
 import model.Quilt;
-import model.patches.Patch;
+import model.QuiltObserver;
+import model.blocks.Block;
+import model.blocks.BlockMap;
+import model.patches.Fabric;
+import model.patches.PatchType;
+import persistence.PatternFolderWatcher;
+import persistence.QuiltJournal;
+import persistence.QuiltSaver;
 import persistence.Reader;
-import persistence.Writer;
+import persistence.SnapshotStore;
 import ui.design.BlockChooserPane;
 import ui.design.CalculationsPane;
 import ui.design.ColorPickerPane;
@@ -28,14 +35,20 @@ import ui.visualization.QuiltGridPane;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.Collections;
 
 /*
 Represents the GUI for Patchwork
  */
 
-public class QuiltApp extends Application {
+public class QuiltApp extends Application implements QuiltObserver {
 
     private static final String QUILT_FILE = "./data/myquilt.json";
+    private static final String JOURNAL_FOLDER = "./data/journal";
+    private static final String VERSIONS_FOLDER = "./data/versions";
+    private static final long JOURNAL_COMPACTION_PERIOD = 30;
 
     private static final int WINDOW_WIDTH = 1500;
     private static final int WINDOW_HEIGHT = WINDOW_WIDTH * 2 / 3;
@@ -49,14 +62,20 @@ public class QuiltApp extends Application {
     private ColorPickerPane quiltColors;
     private CalculationsPane quiltCalculations;
     private QuiltGridPane quiltGrid;
+    private QuiltJournal journal;
+    private QuiltSaver saver;
+    private SnapshotStore versions;
+    private PatternFolderWatcher patternWatcher;
 
-    //EFFECTS: launches the application
+    //EFFECTS: starts loading the block library in the background, then launches the application
     public static void main(String[] args) {
+        BlockMap.warmUp();
         launch(args);
     }
 
     // MODIFIES: this
-    // EFFECTS: initializes the overall application window and graphics; no quilt is immediately loaded
+    // EFFECTS: initializes the overall application window and graphics; if the last session crashed, its quilt is
+    //          recovered from the journal, otherwise no quilt is immediately loaded
     @Override
     public void start(Stage window) {
         this.window = window;
@@ -67,8 +86,23 @@ public class QuiltApp extends Application {
         this.quiltColors = new ColorPickerPane(this);
         this.quiltCalculations = new CalculationsPane(this);
         this.quiltGrid = new QuiltGridPane(this);
+        this.journal = new QuiltJournal(new File(JOURNAL_FOLDER), JOURNAL_COMPACTION_PERIOD);
+        this.saver = new QuiltSaver(new File(QUILT_FILE));
+        this.versions = new SnapshotStore(new File(VERSIONS_FOLDER));
         setParameters();
         initializeGraphics();
+        recoverQuilt();
+        watchPatternFolder();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: starts watching the block pattern folder, so that changed block patterns are shown straight away
+    private void watchPatternFolder() {
+        try {
+            this.patternWatcher = BlockMap.watchPatternFolder();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     // MODIFIES: this
@@ -130,7 +164,9 @@ public class QuiltApp extends Application {
         return quiltArea;
     }
 
-    // EFFECTS: if quilt != null, displays a confirmation box to user to prompt save, then closes program
+    // EFFECTS: if quilt != null, displays a confirmation box to user to prompt save, then closes program once any
+    //          saves still being written, and the versions kept of them, have finished; the journal is emptied, so a
+    //          quilt the user chose not to save is not recovered next time
     private void closeProgram() {
         if (quilt != null) {
             boolean answer = ConfirmBox.display("Exit", "Do you want to save your quilt before exiting?");
@@ -138,6 +174,15 @@ public class QuiltApp extends Application {
                 saveQuilt();
             }
         }
+        try {
+            if (patternWatcher != null) {
+                patternWatcher.close();
+            }
+            saver.close();
+            journal.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
         window.close();
     }
 
@@ -152,22 +197,47 @@ public class QuiltApp extends Application {
         }
     }
 
-    // EFFECTS: saves the current quilt to file if possible
+    // EFFECTS: saves the current quilt to file in the background if possible, then keeps the saved quilt as a new
+    //          version in the snapshot store, on the saver's thread, so closing the saver waits for both
     private void saveQuilt() {
-        try {
-            Writer writer = new Writer(new File(QUILT_FILE));
-            writer.write(quilt);
-            writer.close();
-        } catch (IOException e) {
+        saver.save(quilt, saved -> {
+            try {
+                versions.snapshot(saved, "saved");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).exceptionally(e -> {
             e.printStackTrace();
-        }
+            return null;
+        });
     }
 
     // MODIFIES: this
     // EFFECTS: responds to load button press by loading quilt from file
     public void handleLoadQuiltButtonPressed() {
         loadQuilt();
+        showLoadedQuilt();
+    }
+
+    // MODIFIES: this
+    // EFFECTS: recovers the quilt from the last session from the journal and shows it, if there is one; closing the
+    //          program cleanly empties the journal, so there is only a quilt to recover if the last session crashed
+    private void recoverQuilt() {
+        try {
+            Quilt recovered = QuiltJournal.recover(new File(JOURNAL_FOLDER));
+            if (recovered != null) {
+                quilt = recovered;
+                watchQuilt();
+                showLoadedQuilt();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
+    // MODIFIES: this
+    // EFFECTS: shows a quilt that has just been loaded: sets the colour pickers and quilt info, and renders it
+    private void showLoadedQuilt() {
         quiltColors.setColorPickerA(quilt.getFabricColours()[0]);
         quiltColors.setColorPickerB(quilt.getFabricColours()[1]);
 
@@ -185,6 +255,7 @@ public class QuiltApp extends Application {
     private void loadQuilt() {
         try {
             quilt = Reader.readQuilt(new File(QUILT_FILE));
+            watchQuilt();
         } catch (FileNotFoundException e) {
             Alert loadAlert = new Alert(Alert.AlertType.WARNING);
             loadAlert.setContentText("You don't have a saved quilt yet");
@@ -207,19 +278,20 @@ public class QuiltApp extends Application {
     public String handleCalculateFabricButtonPressed() {
         String answer = "";
         if (quilt != null) {
-            double fabricAmountA = quilt.calculateFabric("A");
-            double fabricAmountB = quilt.calculateFabric("B");
-            double fabricAmountBacking = quilt.calculateTotalBacking();
-            double fabricAmountBinding = quilt.calculateTotalBinding();
+            BillOfMaterials bill = quilt.billOfMaterials();
+            double fabricAmountA = bill.getFabric(Fabric.A);
+            double fabricAmountB = bill.getFabric(Fabric.B);
+            double fabricAmountBacking = bill.getBacking();
+            double fabricAmountBinding = bill.getBinding();
             answer += ("FABRIC NEEDED: \n"
                     + "You need " + fabricAmountA + " square inches of fabric A, \nand "
                     + fabricAmountB + " square inches of fabric B.\n"
                     + "You need " + fabricAmountBacking + " square inches of backing fabric, \n"
                     + "and " + fabricAmountBinding + " square inches of binding fabric.\n"
                     + "\nPATCHES NEEDED: \n"
-                    + "You need " + quilt.countPatches(Patch.SQUARE) + " square patches, "
-                    + quilt.countPatches(Patch.HALF_SQUARE) + " half-square patches, and "
-                    + quilt.countPatches(Patch.HALF_TRIANGLE) + " half-square triangle patches.");
+                    + "You need " + bill.getPatchCount(PatchType.SQUARE) + " square patches, "
+                    + bill.getPatchCount(PatchType.HALF_SQUARE) + " half-square patches, and "
+                    + bill.getPatchCount(PatchType.HALF_TRIANGLE) + " half-square triangle patches.");
         } else {
             answer = "You need to create or load a quilt first!";
         }
@@ -231,6 +303,7 @@ public class QuiltApp extends Application {
     public void handleStartNewQuiltButtonPressed(int blocksAcross, int blocksDown, double blockSize)
             throws IllegalQuiltSizeException {
         quilt = new Quilt(blocksAcross, blocksDown, blockSize);
+        watchQuilt();
         quiltGrid.initializeQuiltGrid(blocksAcross, blocksDown);
         handleRenderQuilt();
     }
@@ -239,24 +312,82 @@ public class QuiltApp extends Application {
     // EFFECTS: responds to reset quilt button press by resetting quilt to null and wiping render
     public void handleResetQuiltButtonPressed() {
         quilt = null;
+        try {
+            journal.stop();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
         quiltGrid.clearQuiltGrid();
+        blockChooser.updateUsageCounts(Collections.emptyMap());
         quiltColors.setColorPickerA("#bbc2cf");
         quiltColors.setColorPickerB("#d1d6df");
     }
 
     // MODIFIES: this
-    // EFFECTS: adds a block to quilt and asks quiltGrid to render the block
+    // EFFECTS: starts repainting the quilt grid when the current quilt changes, and journalling its edits so they
+    //          are saved as they are made
+    private void watchQuilt() {
+        quilt.addObserver(this);
+        try {
+            journal.start(quilt);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a block to quilt; the quilt grid is repainted when the quilt reports the change
     public void handleAddBlockToQuilt(String blockName, int blockIndex) throws BlockUnavailableException,
             SlotOutOfBoundsException {
         quilt.addBlock(blockName, blockIndex);
-        quiltGrid.renderBlock(blockIndex, quilt.getBlocks().get(blockIndex));
     }
 
     // MODIFIES: this
-    // EFFECTS: removes a block from the quilt and resets the appropriate block space to initial state
+    // EFFECTS: removes a block from the quilt; the quilt grid is repainted when the quilt reports the change
     public void handleRemoveBlockFromQuilt(int blockIndex) throws SlotOutOfBoundsException {
         quilt.removeBlock(blockIndex);
-        quiltGrid.resetBlockSpace(blockIndex);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: fills the whole row (or column, if alongRow is false) holding given block index with the block that is
+    //          at that index; does nothing if there is no block there
+    public void handleFillLineOfQuilt(int blockIndex, boolean alongRow) throws BlockUnavailableException,
+            SlotOutOfBoundsException {
+        Block block = quilt.getBlock(blockIndex);
+        if (block != null) {
+            int across = quilt.getNumBlocksAcross();
+            if (alongRow) {
+                quilt.fillRegion(block.getBlockType(), blockIndex / across, 0, 1, across);
+            } else {
+                quilt.fillRegion(block.getBlockType(), 0, blockIndex % across, quilt.getNumBlocksDown(), 1);
+            }
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: removes every block from the row (or column, if alongRow is false) holding given block index
+    public void handleClearLineOfQuilt(int blockIndex, boolean alongRow) throws SlotOutOfBoundsException {
+        int across = quilt.getNumBlocksAcross();
+        if (alongRow) {
+            quilt.clearRegion(blockIndex / across, 0, 1, across);
+        } else {
+            quilt.clearRegion(0, blockIndex % across, quilt.getNumBlocksDown(), 1);
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: repaints the changed block spaces once per change to the quilt, and refreshes the block usage counts
+    @Override
+    public void blocksChanged(Quilt changedQuilt, BitSet changedSlots) {
+        for (int slot = changedSlots.nextSetBit(0); slot >= 0; slot = changedSlots.nextSetBit(slot + 1)) {
+            Block block = changedQuilt.getBlock(slot);
+            if (block == null) {
+                quiltGrid.resetBlockSpace(slot);
+            } else {
+                quiltGrid.renderBlock(slot, block);
+            }
+        }
+        blockChooser.updateUsageCounts(changedQuilt.getBlockHistogram());
     }
 
     // MODIFIES: this
@@ -264,6 +395,7 @@ public class QuiltApp extends Application {
     public void handleRenderQuilt() {
         if (quilt != null) {
             quiltGrid.renderQuilt(quilt.getBlocks());
+            blockChooser.updateUsageCounts(quilt.getBlockHistogram());
         }
     }
 }
@@ -1,6 +1,7 @@
 package ui.design;
 
 import exceptions.BlockUnavailableException;
+import javafx.application.Platform;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Tooltip;
@@ -11,12 +12,69 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import model.blocks.Block;
 import model.blocks.BlockMap;
+import model.blocks.BlockMapObserver;
 import ui.visualization.BlockImage;
 
-public class BlockChooserPane extends VBox {
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class BlockChooserPane extends VBox implements BlockMapObserver {
+
+    private final Map<String, Label> usageLabels = new HashMap<>();
+    private final TreeMap<String, VBox> blockTiles = new TreeMap<>();
+    private Map<String, Integer> usageCounts = Collections.emptyMap();
+    private HBox blockImages;
+    private double blockHeight;
 
     public BlockChooserPane(int height) {
         initializeLayout(height);
+        BlockMap.addObserver(this);
+    }
+
+    // EFFECTS: redraws the blocks whose patterns have changed, adding or removing them as needed, on the JavaFX thread
+    @Override
+    public void blockPatternsChanged(Set<String> blockTypes) {
+        Platform.runLater(() -> updateBlockTiles(blockTypes));
+    }
+
+    // MODIFIES: this
+    // EFFECTS: replaces the tiles of given block types with newly drawn ones, in alphabetical order, leaving out any
+    //          block that is no longer available or cannot be read; does nothing until the blocks have been loaded
+    private void updateBlockTiles(Set<String> blockTypes) {
+        if (blockImages == null) {
+            return;
+        }
+        for (String blockType : blockTypes) {
+            VBox oldTile = blockTiles.remove(blockType);
+            if (oldTile != null) {
+                blockImages.getChildren().remove(oldTile);
+                usageLabels.remove(blockType);
+            }
+            try {
+                if (BlockMap.listAvailableBlocks().contains(blockType)) {
+                    VBox tile = makeBlockTile(blockType);
+                    blockImages.getChildren().add(blockTiles.headMap(blockType).size(), tile);
+                    blockTiles.put(blockType, tile);
+                }
+            } catch (BlockUnavailableException e) {
+                // the pattern file is being written, or is not a valid pattern; it is shown again once it is
+            }
+        }
+        updateUsageCounts(usageCounts);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: shows under each available block how many times it is used in the quilt, given a map from block
+    //          type to number of uses; block types missing from the map are shown as unused
+    public void updateUsageCounts(Map<String, Integer> blockHistogram) {
+        usageCounts = blockHistogram;
+        for (Map.Entry<String, Label> entry : usageLabels.entrySet()) {
+            Integer count = blockHistogram.get(entry.getKey());
+            entry.getValue().setText(count == null ? "" : "in quilt: " + count);
+        }
     }
 
     // EFFECTS: creates and returns a pane where users can choose blocks for their quilt
@@ -40,35 +98,62 @@ public class BlockChooserPane extends VBox {
         blockScroller.setVbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
         blockScroller.setPrefHeight(height);
 
-        HBox blockImages = renderAvailableBlocks((height * .70) - (height * .70 % 3));
-        blockScroller.setContent(blockImages);
+        blockScroller.setContent(new Label("Loading blocks..."));
+        blockHeight = (height * .70) - (height * .70 % 3);
+        BlockMap.warmUp().whenComplete((loadedBlocks, failure) ->
+                Platform.runLater(() -> showLoadedBlocks(blockScroller, loadedBlocks, failure)));
 
         return blockScroller;
     }
 
-    // EFFECTS: creates horizontal pane of available blocks that can be dragged
-    // NOTE: code for .setOnDragDetected method copied from Oracle Drag and Drop Tutorial
-    //      available from https://docs.oracle.com/javafx/2/drag_drop/jfxpub-drag_drop.htm
-    private HBox renderAvailableBlocks(double height) {
-        HBox blockImages = new HBox();
-        blockImages.getStyleClass().add("block-images");
-        for (String blockName : BlockMap.listAvailableBlocks()) {
+    // MODIFIES: this
+    // EFFECTS: replaces the loading message in blockScroller with the blocks loaded in the background; if loading
+    //          failed, the failure is reported and every available block that can still be read is shown instead
+    private void showLoadedBlocks(ScrollPane blockScroller, Set<String> loadedBlocks, Throwable failure) {
+        if (failure != null) {
+            failure.printStackTrace();
+        }
+        blockImages = renderAvailableBlocks(failure == null ? loadedBlocks : BlockMap.listAvailableBlocks());
+        blockScroller.setContent(blockImages);
+        updateUsageCounts(usageCounts);
+    }
+
+    // MODIFIES: this
+    // EFFECTS: creates horizontal pane of given available blocks, whose patterns have been loaded, that can be dragged
+    private HBox renderAvailableBlocks(Set<String> loadedBlocks) {
+        HBox images = new HBox();
+        images.getStyleClass().add("block-images");
+        for (String blockName : loadedBlocks) {
             try {
-                Block block = new Block(blockName);
-                BlockImage blockImage = new BlockImage(block, height);
-                blockImage.setOnDragDetected(event -> {
-                    Dragboard db = blockImage.startDragAndDrop(TransferMode.ANY);
-                    db.setDragView(blockImage.snapshot(null, null));
-                    ClipboardContent content = new ClipboardContent();
-                    content.putString(block.getBlockType());
-                    db.setContent(content);
-                    event.consume();
-                });
-                blockImages.getChildren().add(blockImage);
+                VBox tile = makeBlockTile(blockName);
+                blockTiles.put(blockName, tile);
+                images.getChildren().add(tile);
             } catch (BlockUnavailableException e) {
                 e.printStackTrace();
             }
         }
-        return blockImages;
+        return images;
+    }
+
+    // MODIFIES: this
+    // EFFECTS: creates and returns a tile with an image of the block of given type, that can be dragged, and a label
+    //          for how many times it is used in the quilt
+    //          throws BlockUnavailableException if the block's pattern cannot be read
+    // NOTE: code for .setOnDragDetected method copied from Oracle Drag and Drop Tutorial
+    //      available from https://docs.oracle.com/javafx/2/drag_drop/jfxpub-drag_drop.htm
+    private VBox makeBlockTile(String blockName) throws BlockUnavailableException {
+        Block block = new Block(blockName);
+        BlockImage blockImage = new BlockImage(block, blockHeight);
+        blockImage.setOnDragDetected(event -> {
+            Dragboard db = blockImage.startDragAndDrop(TransferMode.ANY);
+            db.setDragView(blockImage.snapshot(null, null));
+            ClipboardContent content = new ClipboardContent();
+            content.putString(block.getBlockType());
+            db.setContent(content);
+            event.consume();
+        });
+        Label usageLabel = new Label("");
+        usageLabels.put(block.getBlockType(), usageLabel);
+        return new VBox(blockImage, usageLabel);
     }
 }
@@ -4,7 +4,9 @@ import exceptions.BlockUnavailableException;
 import exceptions.SlotOutOfBoundsException;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.*;
@@ -41,6 +43,7 @@ public class BlockSpacePane extends StackPane {
         setBlockSpaceLayout();
         setBlockSpacePreDropEventHandlers();
         setBlockSpaceDropEventHandler();
+        setBlockSpaceContextMenu();
     }
 
     // MODIFIES: this
@@ -105,6 +108,38 @@ public class BlockSpacePane extends StackPane {
         });
     }
 
+    // MODIFIES: this
+    // EFFECTS: sets a right-click menu that fills or clears the whole row or column of the quilt from this block space
+    private void setBlockSpaceContextMenu() {
+        MenuItem fillRow = new MenuItem("Fill row with this block");
+        MenuItem fillColumn = new MenuItem("Fill column with this block");
+        MenuItem clearRow = new MenuItem("Clear row");
+        MenuItem clearColumn = new MenuItem("Clear column");
+        fillRow.setOnAction(event -> handleLineAction(true, true));
+        fillColumn.setOnAction(event -> handleLineAction(true, false));
+        clearRow.setOnAction(event -> handleLineAction(false, true));
+        clearColumn.setOnAction(event -> handleLineAction(false, false));
+
+        ContextMenu contextMenu = new ContextMenu(fillRow, fillColumn, clearRow, clearColumn);
+        this.setOnContextMenuRequested(event -> {
+            contextMenu.show(this, event.getScreenX(), event.getScreenY());
+            event.consume();
+        });
+    }
+
+    // EFFECTS: asks quiltApp to fill (or clear) the row (or column) holding this block space
+    private void handleLineAction(boolean fill, boolean alongRow) {
+        try {
+            if (fill) {
+                quiltApp.handleFillLineOfQuilt(blockIndex, alongRow);
+            } else {
+                quiltApp.handleClearLineOfQuilt(blockIndex, alongRow);
+            }
+        } catch (BlockUnavailableException | SlotOutOfBoundsException e) {
+            e.printStackTrace();
+        }
+    }
+
     // MODIFIES: this
     // EFFECTS: creates a delete button visible only on hover, button invisible & disabled when initialized
     private Button initializeDeleteButton() {
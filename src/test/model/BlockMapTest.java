@@ -1,18 +1,44 @@
 package model;
 
 import exceptions.BlockUnavailableException;
+import model.blocks.Block;
 import model.blocks.BlockMap;
+import model.blocks.BlockMapObserver;
+import persistence.PatternFolderWatcher;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import model.patches.Fabric;
 import model.patches.Patch;
+import model.patches.PatchType;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class BlockMapTest {
 
+    private static final File PATTERN_PACK_FILE = new File("./data/blockPatterns.pack");
+
+    @AfterEach
+    public void runAfter() {
+        // loading the block library writes a pattern pack next to the pattern folder; tests leave none behind
+        PATTERN_PACK_FILE.delete();
+    }
+
     @Test
     public void testConstructor() {
         BlockMap blockMap = new BlockMap();
@@ -22,7 +48,11 @@ public class BlockMapTest {
     @Test
     public void testBlockMapCreation() {
         assertTrue(BlockMap.getAvailableBlockMap().size() > 0);
-        assertEquals(BlockMap.listAvailableBlocks().size(), BlockMap.getAvailableBlockMap().size());
+        assertTrue(BlockMap.listAvailableBlocks().containsAll(BlockMap.getAvailableBlockMap().keySet()));
+        assertTrue(BlockMap.listAvailableBlocks().contains("rev checkerboard"));
+        assertFalse(BlockMap.getAvailableBlockMap().containsKey("rev checkerboard"));
+        assertTrue(BlockMap.getAvailableBlockMap().containsKey("rev flying geese"));
+        assertFalse(BlockMap.listAvailableBlocks().contains("rev rev flying geese"));
 
         assertTrue(BlockMap.getAvailableBlockMap().containsKey("checkerboard"));
         assertTrue(BlockMap.getAvailableBlockMap().containsValue("./data/blockPatterns/checkerboard.json"));
@@ -56,6 +86,253 @@ public class BlockMapTest {
         }
     }
 
+    @Test
+    public void testGetBlockPatchPatternCacheHitsAndMisses() {
+        BlockMap.clearPatternCache();
+        try {
+            BlockMap.getBlockPatchPattern("greek square");
+            assertEquals(0, BlockMap.getPatternCacheHits());
+            assertEquals(1, BlockMap.getPatternCacheMisses());
+
+            BlockMap.getBlockPatchPattern("greek square");
+            BlockMap.getBlockPatchPattern("greek square");
+            BlockMap.getBlockPatchPattern("checkerboard");
+            assertEquals(2, BlockMap.getPatternCacheHits());
+            assertEquals(2, BlockMap.getPatternCacheMisses());
+        } catch (BlockUnavailableException e) {
+            fail("BlockUnavailableException should not have been thrown.");
+        }
+    }
+
+    @Test
+    public void testWarmUp() {
+        BlockMap.clearPatternCache();
+        try {
+            Set<String> loaded = BlockMap.warmUp().get();
+            assertSame(BlockMap.warmUp(), BlockMap.warmUp());
+            assertEquals(BlockMap.listAvailableBlocks(), loaded);
+            // only the variants had to be made, each from its cached block
+            int variants = loaded.size() - BlockMap.getAvailableBlockMap().size();
+            assertEquals(variants, BlockMap.getPatternCacheMisses());
+            assertEquals(variants, BlockMap.getPatternCacheHits());
+            assertTrue(PATTERN_PACK_FILE.isFile());
+
+            BlockMap.getBlockPatchPattern("greek square");
+            assertEquals(variants + 1, BlockMap.getPatternCacheHits());
+            assertEquals(variants, BlockMap.getPatternCacheMisses());
+
+            // the second time, the library is loaded from the pack
+            BlockMap.clearPatternCache();
+            assertEquals(loaded, BlockMap.warmUp().get());
+            assertEquals(BlockMap.getBlockPatchPattern("friendship star"), new Block("friendship star").getPatches());
+            assertEquals(variants, BlockMap.getPatternCacheMisses());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testWarmUpSkipsBadPatternFiles() {
+        Path empty = Paths.get("./data/blockPatterns/test-empty.json");
+        Path malformed = Paths.get("./data/blockPatterns/test-malformed.json");
+        try {
+            Files.write(empty, new byte[0]);
+            Files.write(malformed, "[{\"gsonType\": ".getBytes(StandardCharsets.UTF_8));
+            BlockMap.reloadPatternFiles(new TreeSet<>(Arrays.asList("test-empty.json", "test-malformed.json")));
+            BlockMap.clearPatternCache();
+            Set<String> loaded = BlockMap.warmUp().get();
+            assertTrue(loaded.contains("checkerboard"));
+            assertTrue(loaded.contains("rev checkerboard"));
+            assertFalse(loaded.contains("test empty"));
+            assertFalse(loaded.contains("rev test malformed"));
+            assertFalse(BlockMap.warmUp().isCompletedExceptionally());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            empty.toFile().delete();
+            malformed.toFile().delete();
+            BlockMap.reloadPatternFiles(new TreeSet<>(Arrays.asList("test-empty.json", "test-malformed.json")));
+        }
+    }
+
+    @Test
+    public void testReloadPatternFiles() {
+        Path copy = Paths.get("./data/blockPatterns/test-reload.json");
+        List<Set<String>> changes = new ArrayList<>();
+        BlockMapObserver observer = changes::add;
+        BlockMap.addObserver(observer);
+        try {
+            Files.copy(Paths.get("./data/blockPatterns/checkerboard.json"), copy);
+            BlockMap.reloadPatternFiles(Collections.singleton("test-reload.json"));
+            assertTrue(BlockMap.listAvailableBlocks().contains("test reload"));
+            assertEquals(BlockMap.getBlockPatchPattern("checkerboard"), BlockMap.getBlockPatchPattern("test reload"));
+            assertEquals(new TreeSet<>(Arrays.asList("rev test reload", "test reload")), changes.get(0));
+            assertTrue(BlockMap.listAvailableBlocks().contains("rev test reload"));
+
+            Files.delete(copy);
+            BlockMap.reloadPatternFiles(null);
+            assertFalse(BlockMap.listAvailableBlocks().contains("test reload"));
+            assertFalse(BlockMap.listAvailableBlocks().contains("rev test reload"));
+            assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("rev test reload"));
+            assertTrue(changes.get(1).contains("test reload"));
+            assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("test reload"));
+
+            BlockMap.reloadPatternFiles(Collections.singleton("notes.txt"));
+            assertEquals(2, changes.size());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            BlockMap.removeObserver(observer);
+            copy.toFile().delete();
+        }
+    }
+
+    @Test
+    public void testWatchHalfWrittenFile() {
+        Path partial = Paths.get("./data/blockPatterns/test-partial.json");
+        BlockingQueue<Set<String>> changes = new LinkedBlockingQueue<>();
+        BlockMapObserver observer = changes::add;
+        BlockMap.addObserver(observer);
+        try {
+            PatternFolderWatcher watcher = BlockMap.watchPatternFolder();
+            try {
+                byte[] pattern = Files.readAllBytes(Paths.get("./data/blockPatterns/checkerboard.json"));
+                Files.write(partial, Arrays.copyOf(pattern, pattern.length / 2));
+                assertTrue(waitForChange(changes, "test partial"));
+                assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("test partial"));
+
+                Files.write(partial, pattern);
+                assertTrue(waitForChange(changes, "test partial"));
+                assertEquals(BlockMap.getBlockPatchPattern("checkerboard"),
+                        BlockMap.getBlockPatchPattern("test partial"));
+            } finally {
+                watcher.close();
+            }
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            BlockMap.removeObserver(observer);
+            partial.toFile().delete();
+            BlockMap.reloadPatternFiles(Collections.singleton("test-partial.json"));
+        }
+    }
+
+    @Test
+    public void testPatternNotationFile() {
+        Path json = Paths.get("./data/blockPatterns/test-notation.json");
+        Path notation = Paths.get("./data/blockPatterns/test-notation.pat");
+        try {
+            Files.copy(Paths.get("./data/blockPatterns/checkerboard.json"), json);
+            Files.copy(Paths.get("./data/testData/shoo-fly.pat"), notation);
+            BlockMap.reloadPatternFiles(new TreeSet<>(Arrays.asList("test-notation.json", "test-notation.pat")));
+            assertEquals(notation.toString(), BlockMap.getAvailableBlockMap().get("test notation"));
+            assertEquals(BlockMap.getBlockPatchPattern("shoo fly"), BlockMap.getBlockPatchPattern("test notation"));
+
+            Files.delete(notation);
+            BlockMap.reloadPatternFiles(Collections.singleton("test-notation.pat"));
+            assertEquals(BlockMap.getBlockPatchPattern("checkerboard"), BlockMap.getBlockPatchPattern("test notation"));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            json.toFile().delete();
+            notation.toFile().delete();
+            BlockMap.reloadPatternFiles(Collections.singleton("test-notation.json"));
+        }
+        assertFalse(BlockMap.listAvailableBlocks().contains("test notation"));
+    }
+
+    @Test
+    public void testEmptyPatternFile() {
+        Path empty = Paths.get("./data/blockPatterns/test-empty.json");
+        try {
+            Files.write(empty, new byte[0]);
+            BlockMap.reloadPatternFiles(Collections.singleton("test-empty.json"));
+            assertTrue(BlockMap.listAvailableBlocks().contains("test empty"));
+            assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("test empty"));
+            assertThrows(BlockUnavailableException.class, () -> new Block("test empty"));
+            assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("rev test empty"));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            empty.toFile().delete();
+            BlockMap.reloadPatternFiles(Collections.singleton("test-empty.json"));
+        }
+    }
+
+    @Test
+    public void testVariants() {
+        try {
+            List<Patch> checkerboard = BlockMap.getBlockPatchPattern("checkerboard");
+            List<Patch> reversed = BlockMap.getBlockPatchPattern("rev checkerboard");
+            assertEquals(checkerboard.size(), reversed.size());
+            for (int i = 0; i < checkerboard.size(); i++) {
+                assertEquals(checkerboard.get(i).containsFabric(Fabric.A), reversed.get(i).containsFabric(Fabric.B));
+            }
+
+            // flying geese has a pattern file for its reversed variant, which is used instead
+            assertEquals(BlockMap.getBlockPatchPattern("flying geese mirrored"),
+                    BlockMap.getBlockPatchPattern("rev flying geese"));
+
+            List<Patch> shooFly = BlockMap.getBlockPatchPattern("shoo fly");
+            List<Patch> turned = BlockMap.getBlockPatchPattern("shoo fly rotated 90");
+            assertEquals(shooFly.get(6).getRotation() + 90, turned.get(0).getRotation());
+            assertEquals(shooFly, BlockMap.getBlockPatchPattern("shoo fly rotated 180 mirrored rotated 180 mirrored"));
+            assertEquals(BlockMap.getBlockPatchPattern("rev shoo fly rotated 270"),
+                    BlockMap.getBlockPatchPattern("rev shoo fly mirrored rotated 90 mirrored"));
+            assertEquals(new Block("shoo fly rotated 90").getBlockType(), "shoo fly rotated 90");
+        } catch (BlockUnavailableException e) {
+            fail("BlockUnavailableException should not have been thrown.");
+        }
+        assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("shoo fly rotated 45"));
+        assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("rev a mirrored"));
+        assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("rev rev shoo fly"));
+        assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("rev rev rev shoo fly"));
+        assertThrows(BlockUnavailableException.class, () -> BlockMap.getBlockPatchPattern("rev rev flying geese"));
+        assertThrows(BlockUnavailableException.class, () -> new Block("rev rev shoo fly mirrored"));
+    }
+
+    @Test
+    public void testGetBlockPatchPatternSharedAndUnmodifiable() {
+        try {
+            List<Patch> patches = BlockMap.getBlockPatchPattern("friendship star");
+            List<Patch> blockPatches = new Block("friendship star").getPatches();
+            assertEquals(patches, BlockMap.getBlockPatchPattern("friendship star"));
+            assertEquals(patches, blockPatches);
+            for (int i = 0; i < patches.size(); i++) {
+                assertSame(patches.get(i), blockPatches.get(i));
+            }
+            assertThrows(UnsupportedOperationException.class, () -> patches.remove(0));
+            assertThrows(UnsupportedOperationException.class, () -> patches.get(0).getFabrics().set(0, "C"));
+        } catch (BlockUnavailableException e) {
+            fail("BlockUnavailableException should not have been thrown.");
+        }
+    }
+
+    @Test
+    public void testGetFabricCoefficients() {
+        try {
+            double[] coefficients = BlockMap.getFabricCoefficients("greek square", Fabric.A);
+            assertEquals(3, coefficients.length);
+            for (double blockSize = 3.0; blockSize <= 18.0; blockSize += 1.5) {
+                double patchSize = blockSize / 3;
+                assertEquals(new Block("greek square").calculateFabric("A", blockSize),
+                        PatchType.evaluateFabricCoefficients(coefficients, patchSize), 1e-9);
+            }
+        } catch (BlockUnavailableException e) {
+            fail("BlockUnavailableException should not have been thrown.");
+        }
+    }
+
+    @Test
+    public void testGetFabricCoefficientsInvalidBlock() {
+        try {
+            BlockMap.getFabricCoefficients("a", Fabric.A);
+            fail("BlockUnavailableException should have been thrown.");
+        } catch (BlockUnavailableException e) {
+            // all good
+        }
+    }
+
     @Test
     public void testGetBlockFilesEmptyDirectory() {
         ArrayList<String> result = BlockMap.getBlockFileNames("./data/testData/emptyFolder");
@@ -77,4 +354,16 @@ public class BlockMapTest {
         assertTrue(result.isEmpty());
     }
 
+    // EFFECTS: waits up to 10 seconds for observers to be told that given block type changed, and returns true if they
+    //          were; the last change to it is waited for, once no more changes arrive for a moment
+    private boolean waitForChange(BlockingQueue<Set<String>> changes, String blockType) throws InterruptedException {
+        boolean changed = false;
+        Set<String> next = changes.poll(10, TimeUnit.SECONDS);
+        while (next != null) {
+            changed |= next.contains(blockType);
+            next = changes.poll(200, TimeUnit.MILLISECONDS);
+        }
+        return changed;
+    }
+
 }
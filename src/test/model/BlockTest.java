@@ -3,6 +3,7 @@ package model;
 import exceptions.BlockUnavailableException;
 import model.blocks.Block;
 import model.patches.Patch;
+import model.patches.PatchType;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,6 +56,14 @@ public class BlockTest {
         assertEquals(1, greekSquareBlock.countPatches(Patch.SQUARE));
     }
 
+    @Test
+    public void testCountPatchesByPatchType() {
+        assertEquals(4, greekSquareBlock.countPatches(PatchType.HALF_TRIANGLE));
+        assertEquals(4, greekSquareBlock.countPatches(PatchType.HALF_SQUARE));
+        assertEquals(1, greekSquareBlock.countPatches(PatchType.SQUARE));
+        assertEquals(9, checkerboardBlock.countPatches(PatchType.SQUARE));
+    }
+
     @Test
     public void testCountPatchesDoesNotContainsPatch() {
         assertEquals(0, checkerboardBlock.countPatches(Patch.HALF_TRIANGLE));
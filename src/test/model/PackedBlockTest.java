@@ -0,0 +1,142 @@
+package model;
+
+import model.blocks.PackedBlock;
+import model.patches.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import persistence.Reader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBlockTest {
+
+    private List<Patch> greekSquarePatches;
+    private long greekSquare;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            greekSquarePatches = Reader.readPatchPattern(new File("./data/blockPatterns/greek-square.json"));
+            greekSquare = PackedBlock.encode(greekSquarePatches);
+        } catch (IOException e) {
+            fail("IOException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        List<Patch> decoded = PackedBlock.decode(greekSquare);
+        assertEquals(9, decoded.size());
+        for (int i = 0; i < decoded.size(); i++) {
+            Patch original = greekSquarePatches.get(i);
+            assertEquals(original.getPatchType(), decoded.get(i).getPatchType());
+            assertEquals(original.getRotation(), decoded.get(i).getRotation());
+            assertEquals(original.getFabrics(), decoded.get(i).getFabrics());
+        }
+    }
+
+    @Test
+    public void testDecodeSharesPatches() {
+        List<Patch> decoded = PackedBlock.decode(greekSquare);
+        assertSame(decoded.get(0), PackedBlock.decode(greekSquare).get(0));
+        assertThrows(UnsupportedOperationException.class, () -> decoded.set(0, new Square("A")));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoded.get(9));
+    }
+
+    @Test
+    public void testCountPatches() {
+        assertEquals(9, PackedBlock.countPatches(greekSquare));
+        assertEquals(1, PackedBlock.countPatches(greekSquare, PatchType.SQUARE));
+        assertEquals(4, PackedBlock.countPatches(greekSquare, PatchType.HALF_SQUARE));
+        assertEquals(4, PackedBlock.countPatches(greekSquare, PatchType.HALF_TRIANGLE));
+        assertEquals(1, PackedBlock.countPatches(greekSquare, Fabric.A, PatchType.SQUARE));
+        assertEquals(0, PackedBlock.countPatches(greekSquare, Fabric.B, PatchType.SQUARE));
+        assertEquals(4, PackedBlock.countPatches(greekSquare, Fabric.A, PatchType.HALF_TRIANGLE));
+    }
+
+    @Test
+    public void testCalculateFabric() {
+        assertEquals(125.75, PackedBlock.calculateFabric(greekSquare, Fabric.A, 4));
+        assertEquals(105.5, PackedBlock.calculateFabric(greekSquare, Fabric.B, 4));
+    }
+
+    @Test
+    public void testEncodeFewerPatches() {
+        List<Patch> patches = new ArrayList<>();
+        patches.add(new Square("A"));
+        patches.add(new HalfSquare(270));
+        long packed = PackedBlock.encode(patches);
+        assertEquals(2, PackedBlock.countPatches(packed));
+        assertEquals(2, PackedBlock.decode(packed).size());
+        assertEquals(270, PackedBlock.decode(packed).get(1).getRotation());
+    }
+
+    @Test
+    public void testEncodeTooManyPatches() {
+        List<Patch> patches = new ArrayList<>();
+        for (int i = 0; i <= PackedBlock.MAX_PATCHES; i++) {
+            patches.add(new Square("B"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> PackedBlock.encode(patches));
+    }
+
+    @Test
+    public void testEncodeBadRotation() {
+        List<Patch> patches = new ArrayList<>();
+        patches.add(new HalfSquareTriangle(45));
+        assertThrows(IllegalArgumentException.class, () -> PackedBlock.encode(patches));
+    }
+
+    @Test
+    public void testSwapFabrics() {
+        List<Patch> swapped = PackedBlock.decode(PackedBlock.swapFabrics(greekSquare));
+        assertEquals(180, swapped.get(0).getRotation());
+        assertEquals(270, swapped.get(1).getRotation());
+        assertEquals(PatchType.SQUARE, swapped.get(4).getPatchType());
+        assertTrue(swapped.get(4).containsFabric(Fabric.B));
+        assertFalse(swapped.get(4).containsFabric(Fabric.A));
+        assertEquals(greekSquare, PackedBlock.swapFabrics(PackedBlock.swapFabrics(greekSquare)));
+    }
+
+    @Test
+    public void testRotateAndMirror() {
+        try {
+            long dartingBird = PackedBlock.encode(
+                    Reader.readPatchPattern(new File("./data/blockPatterns/darting-bird.json")));
+            List<Patch> turned = PackedBlock.decode(PackedBlock.rotate(dartingBird, 1));
+            // the bottom left patch moves to the top left, and the top left patch to the top right, turned
+            assertEquals(PackedBlock.decode(dartingBird).get(6), turned.get(0));
+            assertEquals(90, turned.get(2).getRotation());
+            assertEquals(dartingBird, PackedBlock.rotate(dartingBird, 4));
+            assertEquals(PackedBlock.rotate(dartingBird, 3), PackedBlock.rotate(dartingBird, -1));
+
+            List<Patch> mirrored = PackedBlock.decode(PackedBlock.mirror(dartingBird));
+            assertEquals(PackedBlock.decode(dartingBird).get(2), mirrored.get(0));
+            assertEquals(90, mirrored.get(2).getRotation());
+            assertEquals(180, mirrored.get(5).getRotation());
+            assertEquals(dartingBird, PackedBlock.mirror(PackedBlock.mirror(dartingBird)));
+            assertEquals(PackedBlock.rotate(dartingBird, 3),
+                    PackedBlock.mirror(PackedBlock.rotate(PackedBlock.mirror(dartingBird), 1)));
+        } catch (IOException e) {
+            fail("IOException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testRotateNotSquare() {
+        List<Patch> patches = new ArrayList<>();
+        patches.add(new Square("A"));
+        patches.add(new HalfSquare(270));
+        long packed = PackedBlock.encode(patches);
+        assertThrows(IllegalArgumentException.class, () -> PackedBlock.rotate(packed, 1));
+        assertThrows(IllegalArgumentException.class, () -> PackedBlock.mirror(packed));
+        assertEquals(PatchType.HALF_SQUARE, PackedBlock.decode(PackedBlock.swapFabrics(packed)).get(1).getPatchType());
+    }
+
+}
@@ -98,6 +98,19 @@ public class PatchTest {
         assertEquals(7.0, halfSquarePatch.calculateFabric("B", 3.0));
     }
 
+    @Test
+    public void testPatchTypeFabricCoefficients() {
+        for (PatchType patchType : PatchType.values()) {
+            double[] coefficients = patchType.getFabricCoefficients();
+            for (double patchSize = 0; patchSize <= 6; patchSize += 0.5) {
+                assertEquals(patchType.calculatePieceFabric(patchSize),
+                        PatchType.evaluateFabricCoefficients(coefficients, patchSize));
+            }
+        }
+        assertEquals(PatchType.SQUARE, PatchType.fromTypeName(Patch.SQUARE));
+        assertNull(PatchType.fromTypeName("abc"));
+    }
+
     @Test
     public void testHalfSquareTrianglePatchCalculateFabricDoesNotContainFabric() {
         assertEquals(0.0, halfSquareTrianglePatch.calculateFabric("C", 2.5));
@@ -0,0 +1,101 @@
+package model;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuiltDiffTest {
+
+    private Quilt testQuilt;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            testQuilt = new Quilt(4, 5, 6.0);
+            testQuilt.fillRegion("basket", 0, 0, 2, 2);
+            testQuilt.addBlock("shoo fly", 19);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testCompareSameQuilt() {
+        QuiltDiff diff = QuiltDiff.compare(testQuilt, testQuilt.copy());
+        assertTrue(diff.isEmpty());
+        assertTrue(diff.getSlotChanges().isEmpty());
+    }
+
+    @Test
+    public void testCompareSlots() {
+        try {
+            Quilt edited = testQuilt.copy();
+            edited.addBlock("snowball", 0);
+            edited.removeBlock(5);
+            edited.addBlock("basket", 10);
+            edited.setFabricColours(null, "0xd1d6dfff");
+            QuiltDiff diff = QuiltDiff.compare(testQuilt, edited);
+
+            assertFalse(diff.isEmpty());
+            assertFalse(diff.isSizeChanged());
+            assertFalse(diff.isBlockSizeChanged());
+            assertFalse(diff.isFabricColourChanged(0));
+            assertTrue(diff.isFabricColourChanged(1));
+            List<SlotChange> changes = diff.getSlotChanges();
+            assertEquals(3, changes.size());
+            assertEquals(SlotChange.Kind.REPLACED, changes.get(0).getKind());
+            assertEquals("basket", changes.get(0).getFromBlockType());
+            assertEquals("snowball", changes.get(0).getToBlockType());
+            assertEquals(SlotChange.Kind.REMOVED, changes.get(1).getKind());
+            assertEquals(1, changes.get(1).getRow());
+            assertEquals(1, changes.get(1).getCol());
+            assertEquals(SlotChange.Kind.ADDED, changes.get(2).getKind());
+            assertEquals(2, changes.get(2).getRow());
+            assertEquals(2, changes.get(2).getCol());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testCompareDifferentSizes() {
+        try {
+            Quilt wider = new Quilt(5, 4, 8.0);
+            wider.fillRegion("basket", 0, 0, 2, 2);
+            wider.addBlock("snowball", 4);
+            QuiltDiff diff = QuiltDiff.compare(testQuilt, wider);
+            assertTrue(diff.isSizeChanged());
+            assertTrue(diff.isBlockSizeChanged());
+            List<SlotChange> changes = diff.getSlotChanges();
+            assertEquals(2, changes.size());
+            assertEquals("snowball", changes.get(0).getToBlockType());
+            assertEquals(4, changes.get(0).getCol());
+            assertEquals("shoo fly", changes.get(1).getFromBlockType());
+            assertEquals(4, changes.get(1).getRow());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testCompareLargeQuilts() {
+        try {
+            Quilt large = new Quilt(300, 300, 6.0);
+            large.fillRegion("basket", 0, 0, 300, 150);
+            Quilt edited = large.copy();
+            edited.fillRegion("snowball", 100, 100, 2, 100);
+            edited.clearRegion(299, 0, 1, 10);
+            List<SlotChange> changes = QuiltDiff.compare(large, edited).getSlotChanges();
+            assertEquals(210, changes.size());
+            assertEquals(100, changes.get(0).getRow());
+            assertEquals(100, changes.get(0).getCol());
+            assertEquals(SlotChange.Kind.REPLACED, changes.get(0).getKind());
+            assertEquals(SlotChange.Kind.ADDED, changes.get(50).getKind());
+            assertEquals(SlotChange.Kind.REMOVED, changes.get(209).getKind());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+}
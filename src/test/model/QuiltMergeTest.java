@@ -0,0 +1,102 @@
+package model;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuiltMergeTest {
+
+    private Quilt base;
+    private Quilt ours;
+    private Quilt theirs;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            base = new Quilt(4, 5, 6.0);
+            base.fillRegion("basket", 0, 0, 2, 2);
+            base.setFabricColours("0xbbc2cfff", null);
+            ours = base.copy();
+            theirs = base.copy();
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testMergeWithoutConflicts() {
+        try {
+            ours.addBlock("snowball", 19);
+            ours.removeBlock(0);
+            theirs.addBlock("shoo fly", 10);
+            theirs.addBlock("snowball", 19);
+            theirs.setFabricColours("0xbbc2cfff", "0xd1d6dfff");
+            QuiltMerge merge = QuiltMerge.merge(base, ours, theirs);
+
+            assertFalse(merge.hasConflicts());
+            Quilt merged = merge.getMergedQuilt();
+            assertNull(merged.getBlock(0));
+            assertEquals("basket", merged.getBlock(1).getBlockType());
+            assertEquals("shoo fly", merged.getBlock(10).getBlockType());
+            assertEquals("snowball", merged.getBlock(19).getBlockType());
+            assertEquals("0xd1d6dfff", merged.getFabricColours()[1]);
+            assertNull(ours.getBlock(10));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testMergeWithConflicts() {
+        try {
+            ours.addBlock("snowball", 1);
+            theirs.addBlock("shoo fly", 1);
+            theirs.removeBlock(4);
+            ours.setFabricColours("0xffffffff", null);
+            theirs.setFabricColours("0x000000ff", null);
+            QuiltMerge merge = QuiltMerge.merge(base, ours, theirs);
+
+            List<MergeConflict> conflicts = merge.getConflicts();
+            assertEquals(2, conflicts.size());
+            assertEquals(MergeConflict.FABRIC_COLOUR, conflicts.get(0).getSubject());
+            assertEquals("0x000000ff", conflicts.get(0).getTheirValue());
+            MergeConflict slotConflict = conflicts.get(1);
+            assertEquals(MergeConflict.SLOT, slotConflict.getSubject());
+            assertEquals(0, slotConflict.getRow());
+            assertEquals(1, slotConflict.getCol());
+            assertEquals("basket", slotConflict.getBaseValue());
+            assertEquals("snowball", slotConflict.getOurValue());
+            assertEquals("shoo fly", slotConflict.getTheirValue());
+
+            Quilt merged = merge.getMergedQuilt();
+            assertEquals("snowball", merged.getBlock(1).getBlockType());
+            assertNull(merged.getBlock(4));
+            assertEquals("0xffffffff", merged.getFabricColours()[0]);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testMergeTheirResize() {
+        try {
+            theirs = new Quilt(5, 5, 8.0);
+            theirs.fillRegion("basket", 0, 0, 2, 2);
+            theirs.addBlock("shoo fly", 4);
+            ours.addBlock("snowball", 19);
+            QuiltMerge merge = QuiltMerge.merge(base, ours, theirs);
+
+            assertFalse(merge.hasConflicts());
+            Quilt merged = merge.getMergedQuilt();
+            assertEquals(5, merged.getNumBlocksAcross());
+            assertEquals(8.0, merged.getBlockSize());
+            assertEquals("shoo fly", merged.getBlock(4).getBlockType());
+            assertEquals("snowball", merged.getBlock(23).getBlockType());
+            assertNull(merged.getFabricColours()[0]);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+}
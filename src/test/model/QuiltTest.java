@@ -4,7 +4,9 @@ import exceptions.BlockUnavailableException;
 import exceptions.IllegalQuiltSizeException;
 import exceptions.SlotOutOfBoundsException;
 import model.blocks.Block;
+import model.patches.Fabric;
 import model.patches.Patch;
+import model.patches.PatchType;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -187,6 +189,336 @@ class QuiltTest {
         }
     }
 
+    @Test
+    public void testAddBlockSameTypeSharesBlock() {
+        try {
+            testQuilt.addBlock("greek square", 0);
+            testQuilt.addBlock("greek square", 19);
+            assertSame(testQuilt.getBlock(0), testQuilt.getBlock(19));
+            assertSame(testQuilt.getBlocks().get(0), testQuilt.getBlocks().get(19));
+            assertNull(testQuilt.getBlock(1));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testGetBlocksIsUnmodifiableView() {
+        try {
+            java.util.List<Block> blocks = testQuilt.getBlocks();
+            testQuilt.addBlock("checkerboard", 7);
+            assertEquals("checkerboard", blocks.get(7).getBlockType());
+            assertThrows(UnsupportedOperationException.class, () -> blocks.set(7, null));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSetBlock() {
+        try {
+            Block block = new Block("friendship star");
+            testQuilt.setBlock(block, 2);
+            testQuilt.setBlock(new Block("friendship star"), 3);
+            assertSame(block, testQuilt.getBlock(2));
+            assertSame(block, testQuilt.getBlock(3));
+            assertEquals(8, testQuilt.countPatches(Patch.HALF_TRIANGLE));
+
+            testQuilt.setBlock(null, 2);
+            assertNull(testQuilt.getBlock(2));
+            assertEquals(4, testQuilt.countPatches(Patch.HALF_TRIANGLE));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSetBlockSlotOutOfBounds() {
+        try {
+            testQuilt.setBlock(new Block("friendship star"), testQuilt.getTotalBlocks());
+            fail("SlotOutOfBoundsException should have been thrown");
+        } catch (SlotOutOfBoundsException e) {
+            // all good
+        } catch (BlockUnavailableException e) {
+            fail("BlockUnavailableException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testSmallQuiltIsDense() {
+        assertFalse(testQuilt.isSparse());
+    }
+
+    @Test
+    public void testCopy() {
+        try {
+            testQuilt.addBlock("friendship star", 1);
+            testQuilt.addBlock("basket", 2);
+            testQuilt.setFabricColours("0xbbc2cfff", null);
+            testQuilt.addObserver((quilt, changedSlots) -> assertSame(testQuilt, quilt));
+            int halfTriangles = testQuilt.countPatches(Patch.HALF_TRIANGLE);
+            Quilt copy = testQuilt.copy();
+            testQuilt.addBlock("basket", 1);
+            testQuilt.removeBlock(2);
+            testQuilt.setFabricColours(null, null);
+            assertEquals("friendship star", copy.getBlock(1).getBlockType());
+            assertEquals("basket", copy.getBlock(2).getBlockType());
+            assertEquals("0xbbc2cfff", copy.getFabricColours()[0]);
+            assertArrayEquals(new int[]{2}, copy.getSlotsOf("basket"));
+            assertEquals(halfTriangles, copy.countPatches(Patch.HALF_TRIANGLE));
+            copy.removeBlock(1);
+            assertEquals(1, testQuilt.countBlocks("basket"));
+            assertEquals(0, copy.countBlocks("friendship star"));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testHugeQuiltStartsSparse() {
+        try {
+            Quilt hugeQuilt = new Quilt(2000, 2000, 6.0);
+            assertTrue(hugeQuilt.isSparse());
+            assertEquals(4000000, hugeQuilt.getBlocks().size());
+            hugeQuilt.addBlock("greek square", 3999999);
+            assertEquals("greek square", hugeQuilt.getBlock(3999999).getBlockType());
+            assertNull(hugeQuilt.getBlock(0));
+            assertEquals(4, hugeQuilt.countPatches(Patch.HALF_SQUARE));
+            assertTrue(hugeQuilt.isSparse());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSparseQuiltSwitchesToDenseAndBack() {
+        try {
+            Quilt bigQuilt = new Quilt(128, 128, 6.0);
+            int denseAt = bigQuilt.getTotalBlocks() / Quilt.DENSE_OCCUPANCY + 1;
+            for (int slot = 0; slot < denseAt; slot++) {
+                assertTrue(bigQuilt.isSparse());
+                bigQuilt.addBlock("checkerboard", slot);
+            }
+            assertFalse(bigQuilt.isSparse());
+            assertEquals(denseAt * 9, bigQuilt.countPatches(Patch.SQUARE));
+
+            for (int slot = 0; slot < denseAt; slot++) {
+                bigQuilt.removeBlock(slot);
+            }
+            assertTrue(bigQuilt.isSparse());
+            assertEquals(0, bigQuilt.countPatches(Patch.SQUARE));
+            assertNull(bigQuilt.getBlock(0));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testParallelRecountMatchesTally() {
+        try {
+            Quilt bigQuilt = new Quilt(200, 200, 4.5);
+            String[] blockTypes = {"checkerboard", "greek square", "friendship star"};
+            for (int slot = 0; slot < bigQuilt.getTotalBlocks(); slot += 20) {
+                bigQuilt.addBlock(blockTypes[slot % 3], slot);
+            }
+            assertEquals(Quilt.DEFAULT_PARALLEL_THRESHOLD, bigQuilt.getParallelThreshold());
+            bigQuilt.setParallelThreshold(0);
+            assertEquals(0, bigQuilt.copy().getParallelThreshold());
+            assertTrue(bigQuilt.tallyMatchesRecount());
+            bigQuilt.removeBlock(0);
+            bigQuilt.addBlock("greek square", bigQuilt.getTotalBlocks() - 1);
+            assertTrue(bigQuilt.tallyMatchesRecount());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testBlockTypeIndexEmptyQuilt() {
+        assertEquals(0, testQuilt.countBlocks("checkerboard"));
+        assertEquals(0, testQuilt.getSlotsOf("checkerboard").length);
+        assertTrue(testQuilt.getBlockHistogram().isEmpty());
+    }
+
+    @Test
+    public void testBlockTypeIndexAfterChanges() {
+        try {
+            testQuilt.addBlock("checkerboard", 7);
+            testQuilt.addBlock("checkerboard", 2);
+            testQuilt.addBlock("shoo fly", 11);
+            testQuilt.addBlock("checkerboard", 19);
+            testQuilt.addBlock("shoo fly", 19);
+            testQuilt.removeBlock(7);
+
+            assertEquals(1, testQuilt.countBlocks("checkerboard"));
+            assertEquals(2, testQuilt.countBlocks("shoo fly"));
+            assertEquals(0, testQuilt.countBlocks("basket"));
+            assertArrayEquals(new int[]{2}, testQuilt.getSlotsOf("checkerboard"));
+            assertArrayEquals(new int[]{11, 19}, testQuilt.getSlotsOf("shoo fly"));
+
+            java.util.Map<String, Integer> histogram = testQuilt.getBlockHistogram();
+            assertEquals(2, histogram.size());
+            assertEquals(1, histogram.get("checkerboard"));
+            assertEquals(2, histogram.get("shoo fly"));
+
+            testQuilt.removeBlock(2);
+            assertFalse(testQuilt.getBlockHistogram().containsKey("checkerboard"));
+            assertEquals(0, testQuilt.getSlotsOf("checkerboard").length);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testBlockTypeIndexHugeQuilt() {
+        try {
+            Quilt hugeQuilt = new Quilt(2000, 2000, 6.0);
+            hugeQuilt.addBlock("basket", 3999999);
+            hugeQuilt.addBlock("basket", 12);
+            assertArrayEquals(new int[]{12, 3999999}, hugeQuilt.getSlotsOf("basket"));
+            assertEquals(2, hugeQuilt.countBlocks("basket"));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testFillRegion() {
+        java.util.List<java.util.BitSet> changes = observeChanges(testQuilt);
+        try {
+            testQuilt.fillRegion("basket", 1, 2, 3, 2);
+            assertEquals(6, testQuilt.countBlocks("basket"));
+            assertArrayEquals(new int[]{6, 7, 10, 11, 14, 15}, testQuilt.getSlotsOf("basket"));
+            assertNull(testQuilt.getBlock(5));
+            assertEquals(1, changes.size());
+            assertEquals(6, changes.get(0).cardinality());
+            assertTrue(testQuilt.tallyMatchesRecount());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testFillRegionOutOfBounds() {
+        java.util.List<java.util.BitSet> changes = observeChanges(testQuilt);
+        try {
+            testQuilt.fillRegion("basket", 3, 2, 3, 2);
+            fail("SlotOutOfBoundsException should have been thrown");
+        } catch (SlotOutOfBoundsException e) {
+            assertEquals(0, testQuilt.countBlocks("basket"));
+            assertTrue(changes.isEmpty());
+        } catch (BlockUnavailableException e) {
+            fail("BlockUnavailableException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testClearRegion() {
+        java.util.List<java.util.BitSet> changes = observeChanges(testQuilt);
+        try {
+            testQuilt.fillRegion("checkerboard", 0, 0, 5, 4);
+            testQuilt.clearRegion(0, 0, 5, 1);
+            testQuilt.clearRegion(0, 0, 5, 1);
+            assertEquals(15, testQuilt.countBlocks("checkerboard"));
+            assertEquals(15 * 9, testQuilt.countPatches(Patch.SQUARE));
+            assertNull(testQuilt.getBlock(16));
+            assertEquals(2, changes.size());
+            assertEquals(5, changes.get(1).cardinality());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testReplaceAll() {
+        java.util.List<java.util.BitSet> changes = observeChanges(testQuilt);
+        try {
+            testQuilt.addBlock("checkerboard", 3);
+            testQuilt.addBlock("greek square", 4);
+            testQuilt.addBlock("checkerboard", 12);
+            assertEquals(2, testQuilt.replaceAll("checkerboard", "shoo fly"));
+            assertEquals(0, testQuilt.countBlocks("checkerboard"));
+            assertArrayEquals(new int[]{3, 12}, testQuilt.getSlotsOf("shoo fly"));
+            assertEquals("greek square", testQuilt.getBlock(4).getBlockType());
+            assertEquals(0, testQuilt.replaceAll("basket", "shoo fly"));
+            assertEquals(4, changes.size());
+            assertTrue(testQuilt.tallyMatchesRecount());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testReplaceAllNothingMatches() {
+        try {
+            testQuilt.addBlock("checkerboard", 3);
+            int paletteSize = testQuilt.getPaletteSize();
+            assertEquals(0, testQuilt.replaceAll("basket", "snowball"));
+            assertEquals(paletteSize, testQuilt.getPaletteSize());
+            assertThrows(BlockUnavailableException.class, () -> testQuilt.replaceAll("basket", "a"));
+            assertThrows(BlockUnavailableException.class, () -> testQuilt.replaceAll("checkerboard", "a"));
+            assertEquals(paletteSize, testQuilt.getPaletteSize());
+            assertEquals("checkerboard", testQuilt.getBlock(3).getBlockType());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testTileMotif() {
+        java.util.List<java.util.BitSet> changes = observeChanges(testQuilt);
+        try {
+            testQuilt.tileMotif(new String[][]{{"snowball", null, "basket"}, {null, "snowball", null}});
+            assertArrayEquals(new int[]{0, 3, 5, 8, 11, 13, 16, 19}, testQuilt.getSlotsOf("snowball"));
+            assertArrayEquals(new int[]{2, 10, 18}, testQuilt.getSlotsOf("basket"));
+            assertNull(testQuilt.getBlock(1));
+            assertEquals(1, changes.size());
+            assertEquals(11, changes.get(0).cardinality());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testFillHugeQuilt() {
+        try {
+            Quilt hugeQuilt = new Quilt(1000, 1000, 6.0);
+            java.util.List<java.util.BitSet> changes = observeChanges(hugeQuilt);
+            hugeQuilt.fillRegion("checkerboard", 0, 0, 100, 1000);
+            assertFalse(hugeQuilt.isSparse());
+            assertEquals(100000, hugeQuilt.countBlocks("checkerboard"));
+            hugeQuilt.clearRegion(0, 0, 100, 1000);
+            assertTrue(hugeQuilt.isSparse());
+            assertEquals(0, hugeQuilt.countPatches(Patch.SQUARE));
+            assertEquals(2, changes.size());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testRemoveObserver() {
+        java.util.List<java.util.BitSet> changes = new java.util.ArrayList<>();
+        QuiltObserver observer = (quilt, changedSlots) -> changes.add(changedSlots);
+        testQuilt.addObserver(observer);
+        try {
+            testQuilt.addBlock("basket", 0);
+            testQuilt.removeObserver(observer);
+            testQuilt.removeBlock(0);
+            assertEquals(1, changes.size());
+            assertTrue(changes.get(0).get(0));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    // EFFECTS: returns a list that collects the changed slots from every notification given quilt sends
+    private java.util.List<java.util.BitSet> observeChanges(Quilt quilt) {
+        java.util.List<java.util.BitSet> changes = new java.util.ArrayList<>();
+        quilt.addObserver((changedQuilt, changedSlots) -> changes.add(changedSlots));
+        return changes;
+    }
+
     @Test
     public void testRemoveBlockFromEmptyPos() {
         try {
@@ -279,6 +611,109 @@ class QuiltTest {
         }
     }
 
+    @Test
+    public void testCalculationsAfterReplaceAndRemove() {
+        try {
+            testQuilt.addBlock("checkerboard", 4);
+            testQuilt.addBlock("greek square", 4);
+            assertEquals(4, testQuilt.countPatches(Patch.HALF_SQUARE));
+            assertEquals(1, testQuilt.countPatches(Patch.SQUARE));
+            assertEquals(Math.ceil(new Block("greek square").calculateFabric("A", 6.0)),
+                    testQuilt.calculateFabric("A"));
+            assertTrue(testQuilt.tallyMatchesRecount());
+
+            testQuilt.removeBlock(4);
+            testQuilt.removeBlock(4);
+            assertEquals(0, testQuilt.countPatches(Patch.HALF_SQUARE));
+            assertEquals(0, testQuilt.countPatches(Patch.SQUARE));
+            assertEquals(0, testQuilt.calculateFabric("A"));
+            assertEquals(0, testQuilt.calculateFabric("B"));
+            assertTrue(testQuilt.tallyMatchesRecount());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testCalculateFabricUnknownFabric() {
+        try {
+            testQuilt.addBlock("greek square", 0);
+            assertEquals(0, testQuilt.calculateFabric("C"));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testBillOfMaterialsEmptyQuilt() {
+        BillOfMaterials bill = testQuilt.billOfMaterials();
+        assertEquals(0, bill.getFabric(Fabric.A));
+        assertEquals(0, bill.getFabric(Fabric.B));
+        for (PatchType patchType : PatchType.values()) {
+            assertEquals(0, bill.getPatchCount(patchType));
+        }
+        assertEquals(891.0, bill.getBacking());
+        assertEquals(118, bill.getBindingLength());
+        assertEquals(295, bill.getBinding());
+    }
+
+    @Test
+    public void testBillOfMaterialsMatchesCalculations() {
+        try {
+            testQuilt.addBlock("friendship star", 1);
+            testQuilt.addBlock("greek square", 9);
+            testQuilt.addBlock("checkerboard", 12);
+            BillOfMaterials bill = testQuilt.billOfMaterials();
+            assertEquals(testQuilt.calculateFabric("A"), bill.getFabric(Fabric.A));
+            assertEquals(testQuilt.calculateFabric("B"), bill.getFabric(Fabric.B));
+            assertEquals(15, bill.getPatchCount(PatchType.SQUARE));
+            assertEquals(4, bill.getPatchCount(PatchType.HALF_SQUARE));
+            assertEquals(8, bill.getPatchCount(PatchType.HALF_TRIANGLE));
+            assertEquals(testQuilt.calculateTotalBacking(), bill.getBacking());
+            assertEquals(testQuilt.calculateTotalBinding(), bill.getBinding());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testCalculateFabricOtherBlockSize() {
+        try {
+            testQuilt.addBlock("friendship star", 1);
+            testQuilt.addBlock("greek square", 9);
+            assertEquals(Math.ceil(new Block("friendship star").calculateFabric("B", 12.0)
+                    + new Block("greek square").calculateFabric("B", 12.0)), testQuilt.calculateFabric("B", 12.0));
+            assertEquals(testQuilt.calculateFabric("A"), testQuilt.calculateFabric("A", 6.0));
+            assertEquals(0, testQuilt.calculateFabric("C", 12.0));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSweepBillOfMaterials() {
+        try {
+            testQuilt.addBlock("friendship star", 1);
+            testQuilt.addBlock("checkerboard", 2);
+            java.util.List<BillOfMaterials> bills = testQuilt.sweepBillOfMaterials(3.0, 18.0, 1.5);
+            assertEquals(11, bills.size());
+            for (BillOfMaterials bill : bills) {
+                BillOfMaterials expected = testQuilt.billOfMaterials(bill.getBlockSize());
+                assertEquals(expected.getFabric(Fabric.A), bill.getFabric(Fabric.A));
+                assertEquals(expected.getFabric(Fabric.B), bill.getFabric(Fabric.B));
+                assertEquals(testQuilt.calculateFabric("A", bill.getBlockSize()), bill.getFabric(Fabric.A));
+                assertEquals(testQuilt.calculateTotalBacking(bill.getBlockSize()), bill.getBacking());
+                assertEquals(testQuilt.calculateTotalBinding(bill.getBlockSize()), bill.getBinding());
+                assertEquals(14, bill.getPatchCount(PatchType.SQUARE));
+            }
+            assertEquals(3.0, bills.get(0).getBlockSize());
+            assertEquals(18.0, bills.get(10).getBlockSize());
+            assertEquals(testQuilt.calculateFabric("B"), bills.get(2).getFabric(Fabric.B));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
     @Test
     public void testCalculateTotalBacking() {
         assertEquals(891.0, testQuilt.calculateTotalBacking());
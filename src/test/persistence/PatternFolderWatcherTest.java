@@ -0,0 +1,72 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatternFolderWatcherTest {
+
+    private Path watchedFolder;
+    private BlockingQueue<Set<String>> changes;
+    private PatternFolderWatcher watcher;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            watchedFolder = Files.createTempDirectory("patchwork-watch");
+            changes = new LinkedBlockingQueue<>();
+            watcher = new PatternFolderWatcher(watchedFolder.toFile(), changes::add);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        watcher.close();
+        Files.walk(watchedFolder).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+    }
+
+    @Test
+    public void testFileAddedChangedAndRemoved() {
+        try {
+            Path file = watchedFolder.resolve("shoo-fly.json");
+            Files.write(file, "{}".getBytes(StandardCharsets.UTF_8));
+            assertTrue(nextChange().contains("shoo-fly.json"));
+            changes.clear();
+
+            Files.delete(file);
+            assertTrue(nextChange().contains("shoo-fly.json"));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testClose() {
+        try {
+            watcher.close();
+            Files.write(watchedFolder.resolve("snowball.json"), "{}".getBytes(StandardCharsets.UTF_8));
+            assertNull(changes.poll(200, TimeUnit.MILLISECONDS));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    // EFFECTS: waits for the watcher to report a change, and returns the names of the changed files
+    private Set<String> nextChange() throws InterruptedException {
+        Set<String> fileNames = changes.poll(10, TimeUnit.SECONDS);
+        assertNotNull(fileNames);
+        return fileNames;
+    }
+}
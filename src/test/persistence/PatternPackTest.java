@@ -0,0 +1,102 @@
+package persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatternPackTest {
+
+    private Path packFolder;
+    private File packFile;
+    private Map<String, String> sources;
+    private Map<String, Long> patterns;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            packFolder = Files.createTempDirectory("patchwork-pack");
+            packFile = packFolder.resolve("patterns.pack").toFile();
+            sources = new HashMap<>();
+            patterns = new HashMap<>();
+            addSource("checkerboard", 0x123456789L);
+            addSource("friendship star", -42L);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        Files.walk(packFolder).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+    }
+
+    @Test
+    public void testWriteAndRead() {
+        try {
+            assertNull(PatternPack.read(packFile, sources));
+            PatternPack.write(packFile, sources, patterns);
+            assertEquals(patterns, PatternPack.read(packFile, sources));
+            assertFalse(new File(packFile.getPath() + ".tmp").exists());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testReadChangedSource() {
+        try {
+            PatternPack.write(packFile, sources, patterns);
+            File source = new File(sources.get("checkerboard"));
+            assertTrue(source.setLastModified(source.lastModified() - 60000));
+            assertNull(PatternPack.read(packFile, sources));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testReadAddedAndRemovedSource() {
+        try {
+            PatternPack.write(packFile, sources, patterns);
+            Map<String, String> removed = new HashMap<>(sources);
+            removed.remove("checkerboard");
+            assertNull(PatternPack.read(packFile, removed));
+            addSource("greek square", 7L);
+            assertNull(PatternPack.read(packFile, sources));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testReadDamagedPack() {
+        try {
+            PatternPack.write(packFile, sources, patterns);
+            byte[] bytes = Files.readAllBytes(packFile.toPath());
+            Files.write(packFile.toPath(), java.util.Arrays.copyOf(bytes, bytes.length - 3));
+            assertNull(PatternPack.read(packFile, sources));
+            Files.write(packFile.toPath(), "not a pack".getBytes(StandardCharsets.UTF_8));
+            assertNull(PatternPack.read(packFile, sources));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    // MODIFIES: this
+    // EFFECTS: adds a pattern file for given block type, with given packed pattern
+    private void addSource(String blockType, long pattern) throws IOException {
+        Path source = packFolder.resolve(blockType.replace(" ", "-") + ".json");
+        Files.write(source, ("{\"blockType\": \"" + blockType + "\"}").getBytes(StandardCharsets.UTF_8));
+        sources.put(blockType, source.toString());
+        patterns.put(blockType, pattern);
+    }
+}
@@ -0,0 +1,70 @@
+package persistence;
+
+import model.patches.Fabric;
+import model.patches.Patch;
+import model.patches.PatchType;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PatternParserTest {
+
+    @Test
+    public void testParseMatchesJson() {
+        try {
+            List<Patch> fromJson = Reader.readPatchPattern(new File("./data/blockPatterns/shoo-fly.json"));
+            List<Patch> parsed = PatternParser.parse("HT180 SQb HT270 / SQb SQa SQb / HT90 SQb HT0");
+            assertEquals(fromJson.size(), parsed.size());
+            for (int i = 0; i < parsed.size(); i++) {
+                assertEquals(fromJson.get(i).getPatchType(), parsed.get(i).getPatchType());
+                assertEquals(fromJson.get(i).getRotation(), parsed.get(i).getRotation());
+                assertEquals(fromJson.get(i).getFabrics(), parsed.get(i).getFabrics());
+            }
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testParseLinesAndComments() {
+        List<Patch> parsed = PatternParser.parse("# a comment\r\n\tHS90 SQA # another\n\nSQB HT0 /\n");
+        assertEquals(4, parsed.size());
+        assertEquals(PatchType.HALF_SQUARE, parsed.get(0).getPatchType());
+        assertEquals(90, parsed.get(0).getRotation());
+        assertTrue(parsed.get(1).containsFabric(Fabric.A));
+        assertFalse(parsed.get(1).containsFabric(Fabric.B));
+        assertTrue(parsed.get(2).containsFabric(Fabric.B));
+        assertEquals(PatchType.HALF_TRIANGLE, parsed.get(3).getPatchType());
+    }
+
+    @Test
+    public void testParseErrors() {
+        assertParseError("SQa XX0", "line 1, column 5: expected a patch");
+        assertParseError("SQa\nSQc", "line 2, column 3: expected the fabric");
+        assertParseError("HT45", "line 1, column 3: expected a rotation");
+        assertParseError("HS", "line 1, column 3: expected a rotation");
+        assertParseError("HT2700", "line 1, column 6: expected a space");
+        assertParseError("SQaHT0", "line 1, column 4: expected a space");
+        assertParseError("SQa SQb / SQa", "line 1, column 14: row has 1 patches");
+    }
+
+    @Test
+    public void testParseNoPatches() {
+        assertParseError("", "line 1, column 1: expected at least one patch");
+        assertParseError(" \t\r\n / \n", "line 1, column 1: expected at least one patch");
+        assertParseError("\n # nothing but a comment", "line 1, column 1: expected at least one patch");
+    }
+
+    // EFFECTS: checks that parsing given text fails with a message starting with given start
+    private void assertParseError(String text, String start) {
+        try {
+            PatternParser.parse(text);
+            fail("IllegalArgumentException should have been thrown");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith(start), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package persistence;
+
+import exceptions.BlockUnavailableException;
+import model.Quilt;
+import model.blocks.BlockMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuiltFileMigratorTest {
+
+    private Path migrationFolder;
+
+    @BeforeEach
+    public void runBefore() throws IOException {
+        migrationFolder = Files.createTempDirectory("patchwork-migration");
+        Files.copy(Paths.get("./data/testData/testReadQuiltWithGreekSquare.json"),
+                migrationFolder.resolve("greek.json"));
+        Files.copy(Paths.get("./data/testData/testReadEmptyQuilt.json"), migrationFolder.resolve("empty.json"));
+        Files.copy(Paths.get("./data/blockPatterns/basket.json"), migrationFolder.resolve("notAQuilt.json"));
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        for (File file : migrationFolder.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(migrationFolder);
+    }
+
+    @Test
+    public void testMigrateDirectory() {
+        try {
+            Quilt before = Reader.readQuilt(migrationFolder.resolve("greek.json").toFile());
+            String basket = readFile("notAQuilt.json");
+
+            assertEquals(2, QuiltFileMigrator.migrateDirectory(migrationFolder.toFile()));
+
+            assertTrue(readFile("greek.json").startsWith("{\"version\":2,"));
+            assertTrue(readFile("empty.json").contains("\"slots\":[-1,-1,-1,-1,-1,-1,-1,-1]"));
+            assertEquals(basket, readFile("notAQuilt.json"));
+            assertEquals(3, migrationFolder.toFile().listFiles().length);
+
+            Quilt after = Reader.readQuilt(migrationFolder.resolve("greek.json").toFile());
+            assertEquals(before.getTotalBlocks(), after.getTotalBlocks());
+            assertEquals(before.getBlockHistogram(), after.getBlockHistogram());
+            // patches are looked up again in the block map, rather than copied from the old file
+            assertEquals(BlockMap.getPackedPattern("greek square"), after.getBlock(1).getPackedPatches());
+        } catch (IOException | BlockUnavailableException e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testMigrateFileWithUnknownBlockType() {
+        try {
+            String greek = readFile("greek.json");
+            Path custom = migrationFolder.resolve("custom.json");
+            Files.write(custom, greek.replace("\"greek square\"", "\"my custom block\"")
+                    .getBytes(StandardCharsets.UTF_8));
+            String before = readFile("custom.json");
+            assertEquals(1, Reader.readQuilt(custom.toFile()).countBlocks("my custom block"));
+
+            assertFalse(QuiltFileMigrator.migrateFile(custom.toFile()));
+            assertEquals(before, readFile("custom.json"));
+            assertFalse(new File(custom + ".tmp").exists());
+            assertEquals(1, Reader.readQuilt(custom.toFile()).countBlocks("my custom block"));
+        } catch (IOException e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testMigrateDirectoryNotADirectory() {
+        try {
+            QuiltFileMigrator.migrateDirectory(migrationFolder.resolve("greek.json").toFile());
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    // EFFECTS: returns the contents of given file in the migration folder
+    private String readFile(String fileName) throws IOException {
+        return new String(Files.readAllBytes(migrationFolder.resolve(fileName)), StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,147 @@
+package persistence;
+
+import model.Quilt;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuiltJournalTest {
+
+    private Path journalFolder;
+    private QuiltJournal journal;
+    private Quilt testQuilt;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            journalFolder = Files.createTempDirectory("patchwork-journal");
+            journal = new QuiltJournal(journalFolder.toFile(), 3600);
+            testQuilt = new Quilt(4, 5, 6.0);
+            testQuilt.addBlock("basket", 0);
+            journal.start(testQuilt);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        journal.close();
+        for (File file : journalFolder.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(journalFolder);
+    }
+
+    @Test
+    public void testRecordsAppended() {
+        try {
+            testQuilt.addBlock("shoo fly", 3);
+            testQuilt.removeBlock(0);
+            testQuilt.setFabricColours("0xbbc2cfff", null);
+            testQuilt.fillRegion("snowball", 4, 0, 1, 2);
+            assertEquals(5, journal.getRecordsSinceCompaction());
+            assertEquals("A 3 shoo fly\nR 0\nC 0xbbc2cfff -\nA 16 snowball\nA 17 snowball\n",
+                    readFile(QuiltJournal.JOURNAL_FILE));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testRecover() {
+        try {
+            testQuilt.addBlock("shoo fly", 3);
+            testQuilt.removeBlock(0);
+            testQuilt.setFabricColours("0xbbc2cfff", "0xd1d6dfff");
+            assertRecovered();
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testCompact() {
+        try {
+            testQuilt.addBlock("shoo fly", 3);
+            testQuilt.removeBlock(0);
+            journal.compact();
+            assertEquals(0, journal.getRecordsSinceCompaction());
+            assertEquals("", readFile(QuiltJournal.JOURNAL_FILE));
+            assertFalse(journalFolder.resolve(QuiltJournal.OLD_JOURNAL_FILE).toFile().exists());
+            assertTrue(readFile(QuiltJournal.SNAPSHOT_FILE).contains("\"slots\":[-1,-1,-1,0,"));
+
+            testQuilt.addBlock("basket", 19);
+            assertRecovered();
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testRecoverAfterInterruptedCompaction() {
+        try {
+            testQuilt.addBlock("shoo fly", 3);
+            Files.move(journalFolder.resolve(QuiltJournal.JOURNAL_FILE),
+                    journalFolder.resolve(QuiltJournal.OLD_JOURNAL_FILE));
+            Files.write(journalFolder.resolve(QuiltJournal.JOURNAL_FILE),
+                    "R 0\nA 7 bask".getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE);
+
+            Quilt recovered = QuiltJournal.recover(journalFolder.toFile());
+            assertNull(recovered.getBlock(0));
+            assertEquals("shoo fly", recovered.getBlock(3).getBlockType());
+            assertNull(recovered.getBlock(7));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testCloseLeavesNothingToRecover() {
+        try {
+            testQuilt.addBlock("shoo fly", 3);
+            journal.close();
+            testQuilt.addBlock("snowball", 4);
+            assertNull(QuiltJournal.recover(journalFolder.toFile()));
+            assertEquals(0, journalFolder.toFile().listFiles().length);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testStop() {
+        try {
+            journal.stop();
+            testQuilt.addBlock("shoo fly", 3);
+            assertNull(QuiltJournal.recover(journalFolder.toFile()));
+            assertEquals(0, journalFolder.toFile().listFiles().length);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    // EFFECTS: checks that the quilt recovered from the journal matches the test quilt
+    private void assertRecovered() throws IOException {
+        Quilt recovered = QuiltJournal.recover(journalFolder.toFile());
+        assertEquals(testQuilt.getBlockHistogram(), recovered.getBlockHistogram());
+        assertArrayEquals(testQuilt.getSlotsOf("shoo fly"), recovered.getSlotsOf("shoo fly"));
+        assertArrayEquals(testQuilt.getSlotsOf("basket"), recovered.getSlotsOf("basket"));
+        assertArrayEquals(testQuilt.getFabricColours(), recovered.getFabricColours());
+    }
+
+    // EFFECTS: returns the contents of given file in the journal folder
+    private String readFile(String fileName) throws IOException {
+        return new String(Files.readAllBytes(journalFolder.resolve(fileName)), StandardCharsets.UTF_8);
+    }
+
+}
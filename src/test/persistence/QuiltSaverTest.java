@@ -0,0 +1,179 @@
+package persistence;
+
+import model.Quilt;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuiltSaverTest {
+
+    private Path saveFolder;
+    private File saveFile;
+    private Quilt testQuilt;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            saveFolder = Files.createTempDirectory("patchwork-saver");
+            saveFile = new File(saveFolder.toFile(), "quilt.json");
+            testQuilt = new Quilt(4, 5, 6.0);
+            testQuilt.addBlock("basket", 0);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        for (File file : saveFolder.toFile().listFiles()) {
+            Files.delete(file.toPath());
+        }
+        Files.delete(saveFolder);
+    }
+
+    @Test
+    public void testSave() {
+        try (QuiltSaver saver = new QuiltSaver(saveFile)) {
+            saver.save(testQuilt).get();
+            assertEquals("basket", Reader.readQuilt(saveFile).getBlock(0).getBlockType());
+            assertEquals(1, saver.getWriteCount());
+            assertEquals(1, saveFolder.toFile().listFiles().length);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSaveTakesCopy() {
+        try (QuiltSaver saver = new QuiltSaver(saveFile)) {
+            CompletableFuture<Void> save = saver.save(testQuilt);
+            testQuilt.addBlock("shoo fly", 1);
+            save.get();
+            Quilt savedQuilt = Reader.readQuilt(saveFile);
+            assertEquals("basket", savedQuilt.getBlock(0).getBlockType());
+            assertNull(savedQuilt.getBlock(1));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSavesCoalesced() {
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        writer.execute(() -> {
+            try {
+                writerBusy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try (QuiltSaver saver = new QuiltSaver(saveFile, writer)) {
+            CompletableFuture<Void> firstSave = saver.save(testQuilt);
+            testQuilt.addBlock("shoo fly", 1);
+            CompletableFuture<Void> secondSave = saver.save(testQuilt);
+            assertSame(firstSave, secondSave);
+            writerBusy.countDown();
+            firstSave.get();
+            assertEquals(1, saver.getWriteCount());
+            assertEquals("shoo fly", Reader.readQuilt(saveFile).getBlock(1).getBlockType());
+            assertNotSame(firstSave, saver.save(testQuilt));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSaveFailed() {
+        try (QuiltSaver saver = new QuiltSaver(new File(saveFile, "quilt.json"))) {
+            saver.save(testQuilt).get();
+            fail("ExecutionException should have been thrown.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        } catch (Exception e) {
+            fail("No other exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSaveThenAfterWrite() {
+        List<Quilt> written = new ArrayList<>();
+        List<String> threads = new ArrayList<>();
+        CompletableFuture<Void> done;
+        try (QuiltSaver saver = new QuiltSaver(saveFile)) {
+            done = saver.save(testQuilt, quilt -> {
+                assertTrue(saveFile.exists());
+                written.add(quilt);
+                threads.add(Thread.currentThread().getName());
+            });
+            testQuilt.addBlock("snowball", 1);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+            return;
+        }
+        // closing the saver waited for the work after the write
+        assertTrue(done.isDone());
+        assertEquals(1, written.size());
+        assertNotSame(testQuilt, written.get(0));
+        assertNull(written.get(0).getBlock(1));
+        assertEquals("quilt-saver", threads.get(0));
+    }
+
+    @Test
+    public void testAfterWritesCoalesced() {
+        ExecutorService writer = Executors.newSingleThreadExecutor();
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        writer.execute(() -> {
+            try {
+                writerBusy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<Quilt> firstWritten = new ArrayList<>();
+        List<Quilt> secondWritten = new ArrayList<>();
+        try (QuiltSaver saver = new QuiltSaver(saveFile, writer)) {
+            CompletableFuture<Void> firstDone = saver.save(testQuilt, firstWritten::add);
+            testQuilt.addBlock("shoo fly", 1);
+            CompletableFuture<Void> secondDone = saver.save(testQuilt, secondWritten::add);
+            writerBusy.countDown();
+            firstDone.get();
+            secondDone.get();
+            assertEquals(1, saver.getWriteCount());
+            assertTrue(firstWritten.isEmpty());
+            assertEquals(1, secondWritten.size());
+            assertEquals("shoo fly", secondWritten.get(0).getBlock(1).getBlockType());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testSaveFailedSkipsAfterWrite() {
+        List<Quilt> written = new ArrayList<>();
+        try (QuiltSaver saver = new QuiltSaver(new File(saveFile, "quilt.json"))) {
+            saver.save(testQuilt, written::add).get();
+            fail("ExecutionException should have been thrown.");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+            assertTrue(written.isEmpty());
+        } catch (Exception e) {
+            fail("No other exceptions should have been thrown.");
+        }
+    }
+
+}
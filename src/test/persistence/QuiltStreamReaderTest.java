@@ -0,0 +1,117 @@
+package persistence;
+
+import model.Quilt;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuiltStreamReaderTest {
+
+    private File quiltFile;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            Quilt quilt = new Quilt(4, 5, 6.0);
+            quilt.fillRegion("basket", 1, 1, 3, 2);
+            quilt.addBlock("snowball", 19);
+            quilt.setFabricColours("0xbbc2cfff", "0xd1d6dfff");
+            quiltFile = File.createTempFile("testStreamQuilt", ".json");
+            Writer writer = new Writer(quiltFile);
+            writer.write(quilt);
+            writer.close();
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @AfterEach
+    public void runAfter() {
+        quiltFile.delete();
+    }
+
+    @Test
+    public void testReadHeader() {
+        try (QuiltStreamReader reader = new QuiltStreamReader(quiltFile)) {
+            QuiltHeader header = reader.getHeader();
+            assertEquals(4, header.getNumBlocksAcross());
+            assertEquals(5, header.getNumBlocksDown());
+            assertEquals(6.0, header.getBlockSize());
+            assertEquals(java.util.Arrays.asList("basket", "snowball"), header.getBlockTypes());
+            assertEquals("0xd1d6dfff", header.getFabricColours()[1]);
+        } catch (IOException e) {
+            fail("IOException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testReadRows() {
+        try (QuiltStreamReader reader = new QuiltStreamReader(quiltFile)) {
+            assertArrayEquals(new String[4], reader.readRow());
+            assertArrayEquals(new String[]{null, "basket", "basket", null}, reader.readRow());
+            reader.skipRows(2);
+            assertEquals(4, reader.getNextRow());
+            assertArrayEquals(new String[]{null, null, null, "snowball"}, reader.readRow());
+            assertNull(reader.readRow());
+        } catch (IOException e) {
+            fail("IOException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testReadCompressedFile() {
+        try {
+            Writer.writeAtomically(Reader.readQuilt(quiltFile), quiltFile, true);
+            try (QuiltStreamReader reader = new QuiltStreamReader(quiltFile)) {
+                assertEquals(java.util.Arrays.asList("basket", "snowball"), reader.getHeader().getBlockTypes());
+                reader.skipRows(1);
+                assertArrayEquals(new String[]{null, "basket", "basket", null}, reader.readRow());
+            }
+        } catch (IOException e) {
+            fail("IOException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testReadWindow() {
+        try (QuiltStreamReader reader = new QuiltStreamReader(quiltFile)) {
+            String[][] window = reader.readWindow(3, 1, 2, 3);
+            assertArrayEquals(new String[]{"basket", "basket", null}, window[0]);
+            assertArrayEquals(new String[]{null, null, "snowball"}, window[1]);
+            assertNull(reader.readRow());
+        } catch (IOException e) {
+            fail("IOException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testReadVersion1File() {
+        File file = new File("./data/testData/testReadQuiltWithGreekSquare.json");
+        try (QuiltStreamReader reader = new QuiltStreamReader(file)) {
+            assertEquals(3, reader.getHeader().getNumBlocksAcross());
+            assertTrue(reader.getHeader().getBlockTypes().isEmpty());
+            assertArrayEquals(new String[2], reader.getHeader().getFabricColours());
+            assertArrayEquals(new String[]{null, "greek square", null}, reader.readRow());
+            assertArrayEquals(new String[3], reader.readRow());
+            assertNull(reader.readRow());
+        } catch (IOException e) {
+            fail("IOException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testNotAQuiltFile() {
+        try {
+            new QuiltStreamReader(new File("./data/blockPatterns/basket.json")).close();
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+}
@@ -72,6 +72,79 @@ public class ReaderTest {
             assertTrue(patches.get(6) instanceof HalfSquareTriangle && patches.get(6).getRotation() == 270);
             assertTrue(patches.get(7) instanceof HalfSquare && patches.get(7).getRotation() == 270);
             assertTrue(patches.get(8) instanceof HalfSquareTriangle && patches.get(8).getRotation() == 180);
+
+            // test calculations work on a quilt loaded from file
+            assertEquals(4, quilt.countPatches(Patch.HALF_SQUARE));
+            assertEquals(Math.ceil(nonEmptyBlock.calculateFabric("B", 9.0)), quilt.calculateFabric("B"));
+        } catch (IOException e) {
+            fail("IOException should not have been thrown");
+        }
+    }
+
+    @Test
+    public void testReadQuiltVersion2() {
+        try {
+            Quilt quilt = Reader.readQuilt(new File("./data/testData/testReadQuiltV2.json"));
+            assertEquals(3, quilt.getNumBlocksAcross());
+            assertEquals(2, quilt.getNumBlocksDown());
+            assertEquals(9.0, quilt.getBlockSize());
+            assertNull(quilt.getBlock(0));
+            assertEquals("greek square", quilt.getBlock(1).getBlockType());
+            assertEquals(BlockMap.getPackedPattern("greek square"), quilt.getBlock(1).getPackedPatches());
+            assertArrayEquals(new int[]{2, 4}, quilt.getSlotsOf("shoo fly"));
+            assertEquals("0xd1d6dfff", quilt.getFabricColours()[1]);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testReadSummary() {
+        File quiltFile = null;
+        try {
+            Quilt quilt = new Quilt(70, 40, 6.0);
+            quilt.fillRegion("basket", 0, 0, 3, 3);
+            quilt.addBlock("shoo fly", 69);
+            quilt.setFabricColours("0xbbc2cfff", null);
+            quiltFile = File.createTempFile("testReadSummary", ".json");
+            Writer.writeAtomically(quilt, quiltFile);
+
+            QuiltSummary summary = Reader.readSummary(quiltFile);
+            assertEquals(70, summary.getHeader().getNumBlocksAcross());
+            assertEquals("0xbbc2cfff", summary.getHeader().getFabricColours()[0]);
+            assertEquals(9, summary.countBlocks("basket"));
+            assertEquals(0, summary.countBlocks("snowball"));
+            assertEquals(quilt.calculateFabric("B"), summary.getFabric(Fabric.B));
+            assertEquals(quilt.countPatches(Patch.HALF_SQUARE), summary.getPatchCount(PatchType.HALF_SQUARE));
+            assertEquals(quilt.calculateTotalBinding(), summary.getBinding());
+            assertEquals(24, summary.getThumbnailAcross());
+            assertEquals(14, summary.getThumbnailDown());
+            assertEquals("basket", summary.getThumbnailBlockType(0, 0));
+            assertEquals("shoo fly", summary.getThumbnailBlockType(0, 23));
+            assertNull(summary.getThumbnailBlockType(1, 1));
+
+            // the blocks are never read, so the summary can be read even if they are damaged
+            String json = new String(java.nio.file.Files.readAllBytes(quiltFile.toPath()), "UTF-8");
+            json = json.replace("\"slots\":[", "\"slots\":[x");
+            java.nio.file.Files.write(quiltFile.toPath(), json.getBytes("UTF-8"));
+            assertEquals(1, Reader.readSummary(quiltFile).countBlocks("shoo fly"));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            if (quiltFile != null) {
+                quiltFile.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testReadSummaryVersion1() {
+        try {
+            QuiltSummary summary = Reader.readSummary(new File("./data/testData/testReadQuiltWithGreekSquare.json"));
+            assertEquals(6, summary.getHeader().getTotalBlocks());
+            assertEquals(1, summary.countBlocks("greek square"));
+            assertEquals(4, summary.getPatchCount(PatchType.HALF_SQUARE));
+            assertEquals("greek square", summary.getThumbnailBlockType(0, 1));
         } catch (IOException e) {
             fail("IOException should not have been thrown");
         }
@@ -138,4 +211,20 @@ public class ReaderTest {
     }
 
 
+    @Test
+    public void testReadPatchPatternNotation() {
+        try {
+            List<Patch> patches = Reader.readPatchPattern(new File("./data/testData/shoo-fly.pat"));
+            assertEquals(9, patches.size());
+            assertEquals(180, patches.get(0).getRotation());
+            assertEquals(Patch.HALF_TRIANGLE, patches.get(8).getType());
+            Reader.readPatchPattern(new File("./data/testData/noSuchPattern.pat"));
+            fail("FileNotFoundException should have been thrown");
+        } catch (java.io.FileNotFoundException e) {
+            // expected
+        } catch (IOException e) {
+            fail("No other IOException should have been thrown");
+        }
+    }
+
 }
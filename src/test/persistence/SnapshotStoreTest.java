@@ -0,0 +1,124 @@
+package persistence;
+
+import model.Quilt;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotStoreTest {
+
+    private Path storeFolder;
+    private SnapshotStore store;
+    private Quilt testQuilt;
+
+    @BeforeEach
+    public void runBefore() {
+        try {
+            storeFolder = Files.createTempDirectory("patchwork-snapshots");
+            store = new SnapshotStore(storeFolder.toFile());
+            testQuilt = new Quilt(4, 5, 6.0);
+            testQuilt.fillRegion("basket", 0, 0, 2, 4);
+            testQuilt.setFabricColours("0xbbc2cfff", null);
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @AfterEach
+    public void runAfter() throws IOException {
+        Files.walk(storeFolder).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+    }
+
+    @Test
+    public void testSnapshotAndRestore() {
+        try {
+            QuiltVersion first = store.snapshot(testQuilt, "first try");
+            testQuilt.addBlock("shoo fly", 19);
+            QuiltVersion second = store.snapshot(testQuilt, "with a\nshoo fly");
+
+            List<QuiltVersion> versions = store.listVersions();
+            assertEquals(2, versions.size());
+            assertEquals(first.getNumber(), versions.get(0).getNumber());
+            assertEquals("first try", versions.get(0).getLabel());
+            assertEquals("with a shoo fly", versions.get(1).getLabel());
+
+            Quilt restored = store.restore(first.getNumber());
+            assertEquals(6.0, restored.getBlockSize());
+            assertEquals("0xbbc2cfff", restored.getFabricColours()[0]);
+            assertEquals(8, restored.countBlocks("basket"));
+            assertNull(restored.getBlock(19));
+            assertEquals("shoo fly", store.restore(second.getNumber()).getBlock(19).getBlockType());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testUnchangedRowsStoredOnce() {
+        try {
+            store.snapshot(testQuilt, "first");
+            // 2 distinct rows (basket and empty) and a tree
+            assertEquals(3, countObjects());
+            testQuilt.addBlock("shoo fly", 19);
+            store.snapshot(testQuilt, "second");
+            // only the changed row and the new tree are added
+            assertEquals(5, countObjects());
+            store.snapshot(testQuilt, "again");
+            assertEquals(5, countObjects());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testPrune() {
+        try {
+            store.snapshot(testQuilt, "first");
+            testQuilt.addBlock("shoo fly", 19);
+            store.snapshot(testQuilt, "second");
+            testQuilt.removeBlock(19);
+            testQuilt.addBlock("snowball", 18);
+            QuiltVersion third = store.snapshot(testQuilt, "third");
+
+            assertEquals(3, store.prune(1));
+            assertEquals(1, store.listVersions().size());
+            assertEquals("snowball", store.restore(third.getNumber()).getBlock(18).getBlockType());
+            assertEquals(4, countObjects());
+            store.restore(1);
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        } catch (Exception e) {
+            fail("No other exceptions should have been thrown.");
+        }
+    }
+
+    @Test
+    public void testVersionCutShortIgnored() {
+        try {
+            store.snapshot(testQuilt, "first");
+            Files.write(storeFolder.resolve(SnapshotStore.VERSIONS_FILE), "2 15".getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.APPEND);
+            assertEquals(1, store.listVersions().size());
+            QuiltVersion next = store.snapshot(testQuilt, "next");
+            assertEquals(2, next.getNumber());
+            assertEquals(2, store.listVersions().size());
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        }
+    }
+
+    // EFFECTS: returns the number of objects in the store
+    private long countObjects() throws IOException {
+        return Files.walk(storeFolder.resolve(SnapshotStore.OBJECTS_FOLDER)).filter(Files::isRegularFile).count();
+    }
+}
@@ -7,8 +7,13 @@ import model.Quilt;
 import model.blocks.*;
 import model.patches.*;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -76,6 +81,172 @@ public class WriterTest {
         }
     }
 
+    @Test
+    public void testWriteQuiltCompactByDefault() {
+        try {
+            String json = readFile();
+            assertFalse(json.contains("\n"));
+            assertFalse(json.contains("\"patches\""));
+            assertEquals("{\"version\":2,\"summary\":{\"numBlocksAcross\":2,\"numBlocksDown\":2,\"blockSize\":4.0,"
+                    + "\"fabricColours\":[null,null],\"blockTypes\":[\"friendship star\"],\"blockCounts\":[1],"
+                    + "\"fabricAmounts\":{\"A\":20.0,\"B\":30.0},"
+                    + "\"patchCounts\":{\"Square\":5,\"HalfSquare\":0,\"HalfSquareTriangle\":4},"
+                    + "\"backing\":121.0,\"binding\":105.0,\"thumbnail\":[-1,-1,-1,0]},"
+                    + "\"numBlocksAcross\":2,\"numBlocksDown\":2,\"blockSize\":4.0,"
+                    + "\"fabricColours\":[null,null],\"blockTypes\":[\"friendship star\"],"
+                    + "\"slots\":[-1,-1,-1,0]}", json);
+        } catch (IOException e) {
+            fail("IOException should have not been thrown");
+        }
+    }
+
+    @Test
+    public void testWriteQuiltPrettyPrint() {
+        try {
+            testQuilt.setFabricColours("0xbbc2cfff", null);
+            testWriter = new Writer(new File(TEST_FILE));
+            testWriter.write(testQuilt, true);
+            testWriter.close();
+            assertTrue(readFile().contains("\n  \"numBlocksDown\": 2,\n"));
+
+            Quilt readQuilt = Reader.readQuilt(new File(TEST_FILE));
+            assertEquals("friendship star", readQuilt.getBlock(3).getBlockType());
+            assertEquals(testQuilt.getBlock(3).getPackedPatches(), readQuilt.getBlock(3).getPackedPatches());
+            assertEquals("0xbbc2cfff", readQuilt.getFabricColours()[0]);
+            assertNull(readQuilt.getFabricColours()[1]);
+        } catch (IOException e) {
+            fail("IOException should have not been thrown");
+        }
+    }
+
+    @Test
+    public void testWriteBinaryQuilt() {
+        File binaryFile = null;
+        try {
+            binaryFile = File.createTempFile("testWriteQuilt", ".pwq");
+            testQuilt.addBlock("checkerboard", 0);
+            testQuilt.addBlock("checkerboard", 1);
+            testQuilt.setFabricColours("0xbbc2cfff", null);
+            Writer.writeBinary(testQuilt, binaryFile);
+
+            QuiltHeader header = Reader.readQuiltHeader(binaryFile);
+            assertEquals(2, header.getNumBlocksAcross());
+            assertEquals(4, header.getTotalBlocks());
+            assertEquals(4.0, header.getBlockSize());
+            assertEquals(java.util.Arrays.asList("checkerboard", "friendship star"), header.getBlockTypes());
+            assertNull(header.getFabricColours()[1]);
+
+            MappedQuilt mappedQuilt = Reader.mapQuilt(binaryFile);
+            assertNull(mappedQuilt.getBlockType(2));
+            assertEquals("friendship star", mappedQuilt.getBlockType(3));
+            assertSame(mappedQuilt.getBlock(0), mappedQuilt.getBlock(1));
+
+            Quilt readQuilt = Reader.readQuilt(binaryFile);
+            assertEquals(testQuilt.getBlockHistogram(), readQuilt.getBlockHistogram());
+            assertNull(readQuilt.getBlock(2));
+            assertEquals("0xbbc2cfff", readQuilt.getFabricColours()[0]);
+            assertEquals(testQuilt.calculateFabric("A"), readQuilt.calculateFabric("A"));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            if (binaryFile != null) {
+                binaryFile.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testReadDamagedBinaryQuilt() {
+        File binaryFile = null;
+        try {
+            binaryFile = File.createTempFile("testWriteQuilt", ".pwq");
+            Writer.writeBinary(testQuilt, binaryFile);
+            byte[] bytes = Files.readAllBytes(binaryFile.toPath());
+            Files.write(binaryFile.toPath(), java.util.Arrays.copyOf(bytes, bytes.length - 1));
+            Reader.readQuilt(binaryFile);
+            fail("IOException should have been thrown");
+        } catch (IOException e) {
+            // expected
+        } finally {
+            if (binaryFile != null) {
+                binaryFile.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testWriteCompressedQuilt() {
+        File compressedFile = null;
+        File plainFile = null;
+        try {
+            compressedFile = File.createTempFile("testWriteQuilt", ".json.gz");
+            plainFile = File.createTempFile("testWriteQuilt", ".json");
+            Quilt bigQuilt = new Quilt(100, 100, 4);
+            bigQuilt.fillRegion("friendship star", 0, 0, 100, 50);
+            Writer writer = new Writer(compressedFile, true);
+            writer.write(bigQuilt);
+            writer.close();
+            Writer.writeAtomically(bigQuilt, plainFile);
+            assertTrue(Reader.isCompressed(compressedFile));
+            assertFalse(Reader.isCompressed(plainFile));
+            assertTrue(compressedFile.length() * 10 < plainFile.length());
+
+            Quilt readQuilt = Reader.readQuilt(compressedFile);
+            assertEquals(bigQuilt.getBlockHistogram(), readQuilt.getBlockHistogram());
+            assertNull(readQuilt.getBlock(99));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            if (compressedFile != null) {
+                compressedFile.delete();
+            }
+            if (plainFile != null) {
+                plainFile.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testOpenUsesUtf8() {
+        File plainFile = null;
+        File compressedFile = null;
+        try {
+            plainFile = File.createTempFile("testWriteText", ".json");
+            compressedFile = File.createTempFile("testWriteText", ".json.gz");
+            for (File file : new File[] {plainFile, compressedFile}) {
+                try (OutputStreamWriter out = Writer.open(file, file == compressedFile)) {
+                    out.write("caf\u00e9 \u2605");
+                }
+                try (BufferedReader in = new BufferedReader(Reader.open(file))) {
+                    assertEquals("caf\u00e9 \u2605", in.readLine());
+                }
+            }
+            assertArrayEquals("caf\u00e9 \u2605".getBytes(StandardCharsets.UTF_8),
+                    Files.readAllBytes(plainFile.toPath()));
+        } catch (Exception e) {
+            fail("No exceptions should have been thrown.");
+        } finally {
+            if (plainFile != null) {
+                plainFile.delete();
+            }
+            if (compressedFile != null) {
+                compressedFile.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testSharedGson() {
+        assertSame(GsonConfigured.getGson(), GsonConfigured.getGson());
+        assertSame(GsonConfigured.getPrettyGson(), GsonConfigured.getPrettyGson());
+        assertNotSame(GsonConfigured.getGson(), GsonConfigured.getPrettyGson());
+    }
+
+    // EFFECTS: returns the contents of the test file
+    private String readFile() throws IOException {
+        return new String(Files.readAllBytes(Paths.get(TEST_FILE)), StandardCharsets.UTF_8);
+    }
+
     @Test
     public void testWriteQuiltExceptionExpectedBadFileName() {
         try {